@@ -0,0 +1,59 @@
+package com.evcharginstation.backend.benchmark;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.EVStationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EVStationServiceBenchmark {
+    private EVStationService evStationService;
+    private long[] ids;
+
+    @Setup
+    public void setUp(StationCatalogue catalogue) {
+        this.evStationService = catalogue.getBean(EVStationService.class);
+        // Ids come from a sequence that allocates in blocks, so they are not 1..stations.
+        this.ids = catalogue.getBean(JdbcTemplate.class).queryForList("SELECT STATION_ID FROM STATION", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+    }
+
+    @Benchmark
+    public List<EVStation> getEVStations() {
+        return this.evStationService.getEVStations();
+    }
+
+    @Benchmark
+    public List<EVStation> getSortedEVStations() {
+        return this.evStationService.getSortedEVStations("desc", "STATION_PRICING");
+    }
+
+    @Benchmark
+    public List<EVStation> getLimitedEVStations() {
+        return this.evStationService.getLimitedEVStations(50);
+    }
+
+    @Benchmark
+    public Optional<EVStation> getEVStation() {
+        return this.evStationService.getEVStation(this.ids[ThreadLocalRandom.current().nextInt(this.ids.length)]);
+    }
+}
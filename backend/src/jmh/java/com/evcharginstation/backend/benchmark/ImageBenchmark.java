@@ -0,0 +1,131 @@
+package com.evcharginstation.backend.benchmark;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.EVStationImageVariants;
+import com.evcharginstation.backend.service.EVStationService;
+import com.evcharginstation.backend.service.image.ImageStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Image reads stream the whole file. Uploads either repeat the same bytes (answered by
+ * de-duplication) or append a counter after the JPEG end marker so every upload is a new
+ * file; those files and their variants are removed again. addEVStation goes through the
+ * MultipartFile path the controller uses and also inserts a row, which is deleted again. The catalogue size does not
+ * matter here, so only the seed rows are loaded.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImageBenchmark {
+    private static final Path IMAGE_DIRECTORY = Paths.get(System.getProperty("user.dir"), "src", "main", "resources", "static", "images");
+
+    private ConfigurableApplicationContext context;
+    private EVStationService evStationService;
+    private byte[] image;
+    private final Set<String> stored = new HashSet<>();
+    private final List<Long> added = new ArrayList<>();
+
+    @State(Scope.Benchmark)
+    public static class Upload {
+        @Param({"duplicate", "unique"})
+        public String content;
+        private long uploads;
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        this.context = StationCatalogue.start(0, true);
+        this.evStationService = this.context.getBean(EVStationService.class);
+        this.image = Files.readAllBytes(IMAGE_DIRECTORY.resolve(StationCatalogue.IMAGE_NAME + ".jpeg"));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        removeUploads();
+        this.context.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void removeUploads() throws IOException {
+        JdbcTemplate jdbcTemplate = this.context.getBean(JdbcTemplate.class);
+        for (Long id : this.added) {
+            jdbcTemplate.update("DELETE FROM STATION WHERE STATION_ID = ?", id);
+        }
+        this.added.clear();
+        ImageStore imageStore = this.context.getBean(ImageStore.class);
+        this.stored.remove(StationCatalogue.IMAGE_NAME);
+        for (String imageName : this.stored) {
+            imageStore.delete(EVStationImageVariants.originalKey(imageName));
+            for (EVStationImageVariants.Size size : EVStationImageVariants.Size.values()) {
+                imageStore.delete(EVStationImageVariants.variantKey(imageName, size));
+            }
+        }
+        this.stored.clear();
+    }
+
+    @Benchmark
+    public long getImage() throws IOException {
+        try (InputStream content = this.evStationService.getImage(StationCatalogue.IMAGE_NAME).getInputStream()) {
+            return content.transferTo(OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public String storeImage(Upload upload) throws IOException {
+        String imageName = this.evStationService.storeImage(new ByteArrayInputStream(content(upload)), Long.MAX_VALUE);
+        this.stored.add(imageName);
+        return imageName;
+    }
+
+    @Benchmark
+    public EVStation addEVStation(Upload upload) {
+        MockMultipartFile file = new MockMultipartFile("image", "station.jpeg", MediaType.IMAGE_JPEG_VALUE, content(upload));
+        EVStation station = this.evStationService.addEVStation(file, "Benchmark Station", 4.17F, "1 Benchmark Road", null, null);
+        this.added.add(station.getId());
+        this.stored.add(station.getImage().substring(station.getImage().lastIndexOf('/') + 1));
+        return station;
+    }
+
+    private byte[] content(Upload upload) {
+        if (upload.content.equals("duplicate")) {
+            return this.image;
+        }
+        byte[] content = Arrays.copyOf(this.image, this.image.length + Long.BYTES);
+        ByteBuffer.wrap(content).putLong(this.image.length, ++upload.uploads);
+        return content;
+    }
+}
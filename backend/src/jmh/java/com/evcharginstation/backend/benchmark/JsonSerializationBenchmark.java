@@ -0,0 +1,67 @@
+package com.evcharginstation.backend.benchmark;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.EVStationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serializes station lists with the application's {@link ObjectMapper}: one page as a
+ * paged listing returns it, and the whole catalogue as the unpaged listing does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JsonSerializationBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int stations;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private List<EVStation> page;
+    private List<EVStation> catalogue;
+
+    @Setup
+    public void setUp() {
+        this.context = StationCatalogue.start(stations, true);
+        this.objectMapper = this.context.getBean(ObjectMapper.class);
+        EVStationService evStationService = this.context.getBean(EVStationService.class);
+        this.catalogue = evStationService.getEVStations();
+        this.page = evStationService.getEVStationPage(null, null, null, 20).getStations();
+    }
+
+    @TearDown
+    public void tearDown() {
+        this.context.close();
+    }
+
+    @Benchmark
+    public void serializePage() throws IOException {
+        this.objectMapper.writeValue(OutputStream.nullOutputStream(), this.page);
+    }
+
+    @Benchmark
+    public void serializeCatalogue() throws IOException {
+        this.objectMapper.writeValue(OutputStream.nullOutputStream(), this.catalogue);
+    }
+}
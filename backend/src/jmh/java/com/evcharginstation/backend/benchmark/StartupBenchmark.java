@@ -0,0 +1,146 @@
+package com.evcharginstation.backend.benchmark;
+
+import com.evcharginstation.backend.BackendApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from launching a new JVM until the first successful GET /api/stations. The
+ * application runs from the plain jar built by the benchmark profile, since CDS only
+ * archives classes loaded from jars. {@code faststart-cds} trains its archive once per
+ * trial, the same way the appcds profile does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StartupBenchmark {
+    private static final Path TARGET_DIRECTORY = Paths.get(System.getProperty("user.dir"), "target");
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+
+    @Param({"default", "faststart", "faststart-cds"})
+    public String mode;
+
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(100)).build();
+    private String classpath;
+    private Path archive;
+    private Process process;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        this.classpath = classpath();
+        if (mode.equals("faststart-cds")) {
+            this.archive = TARGET_DIRECTORY.resolve("startup-benchmark.jsa");
+            Files.deleteIfExists(this.archive);
+            List<String> command = command("-XX:ArchiveClassesAtExit=" + this.archive, freePort());
+            command.add("--stations.startup.training-run=true");
+            Process training = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (!training.waitFor(STARTUP_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS) || training.exitValue() != 0 || !Files.exists(this.archive)) {
+                training.destroyForcibly();
+                throw new IllegalStateException("Training run for the CDS archive failed");
+            }
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void stop() throws InterruptedException {
+        if (this.process != null) {
+            this.process.destroy();
+            this.process.waitFor();
+            this.process = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        if (this.archive != null) {
+            Files.deleteIfExists(this.archive);
+        }
+    }
+
+    @Benchmark
+    public int firstRequest() throws IOException, InterruptedException {
+        int port = freePort();
+        String archiveOption = this.archive == null ? "-Xshare:auto" : "-XX:SharedArchiveFile=" + this.archive;
+        this.process = new ProcessBuilder(command(archiveOption, port)).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/stations")).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline && this.process.isAlive()) {
+            try {
+                HttpResponse<Void> response = this.client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() == 200) {
+                    return response.statusCode();
+                }
+            } catch (IOException e) {
+                // not listening yet
+            }
+            Thread.sleep(5);
+        }
+        throw new IllegalStateException("Application did not answer GET /api/stations in mode " + mode);
+    }
+
+    private List<String> command(String archiveOption, int port) {
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                archiveOption,
+                "-classpath", this.classpath,
+                BackendApplication.class.getName(),
+                "--server.port=" + port,
+                "--logging.level.root=warn"));
+        if (!mode.equals("default")) {
+            command.add("--spring.profiles.active=faststart");
+        }
+        return command;
+    }
+
+    private static String classpath() throws IOException {
+        List<String> entries = new ArrayList<>();
+        try (DirectoryStream<Path> jars = Files.newDirectoryStream(TARGET_DIRECTORY, "backend-*.jar")) {
+            jars.forEach(jar -> entries.add(jar.toString()));
+        }
+        if (entries.isEmpty()) {
+            throw new IllegalStateException("No application jar in " + TARGET_DIRECTORY + ", run mvn -Pbenchmark verify");
+        }
+        for (String entry : System.getProperty("java.class.path").split(File.pathSeparator)) {
+            if (entry.endsWith(".jar")) {
+                entries.add(entry);
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
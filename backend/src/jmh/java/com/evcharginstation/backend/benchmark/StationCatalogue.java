@@ -0,0 +1,94 @@
+package com.evcharginstation.backend.benchmark;
+
+import com.evcharginstation.backend.BackendApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Application context backed by an in-memory H2 seeded with {@code stations} rows.
+ * With {@code cache=disabled} the station and view caches hold nothing, so every call
+ * goes to the database.
+ */
+@State(Scope.Benchmark)
+public class StationCatalogue {
+    static final String IMAGE_NAME = "023d2e8c4029412e1532319af131e6d0";
+    private static final int SEED_BATCH_SIZE = 10_000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int stations;
+
+    @Param({"enabled", "disabled"})
+    public String cache;
+
+    private ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void start() {
+        this.context = start(stations, cache.equals("enabled"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        this.context.close();
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return this.context.getBean(type);
+    }
+
+    static ConfigurableApplicationContext start(int stations, boolean cacheEnabled) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                "--logging.level.root=warn",
+                "--logging.level.org.flywaydb=warn"));
+        if (!cacheEnabled) {
+            arguments.add("--stations.cache.maximum-size=0");
+            arguments.add("--stations.cache.view-maximum-stations=0");
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(arguments.toArray(new String[0]));
+        seed(context.getBean(JdbcTemplate.class), stations);
+        return context;
+    }
+
+    private static void seed(JdbcTemplate jdbcTemplate, int stations) {
+        Random random = new Random(42);
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM STATION", Long.class);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = existing; i < stations; i++) {
+            batch.add(new Object[]{
+                    "Station " + random.nextInt(stations),
+                    "/api/stations/images/" + IMAGE_NAME,
+                    Math.round(random.nextDouble() * 1000) / 100.0,
+                    i + " Benchmark Road",
+                    -90 + random.nextDouble() * 180,
+                    -180 + random.nextDouble() * 360
+            });
+            if (batch.size() == SEED_BATCH_SIZE) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(jdbcTemplate, batch);
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO STATION(STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS, " +
+                "STATION_LATITUDE, STATION_LONGITUDE) VALUES (?, ?, ?, ?, ?, ?)", batch);
+    }
+}
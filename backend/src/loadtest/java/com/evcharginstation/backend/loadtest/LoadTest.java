@@ -0,0 +1,334 @@
+package com.evcharginstation.backend.loadtest;
+
+import com.evcharginstation.backend.BackendApplication;
+import com.evcharginstation.backend.service.EVStationImageVariants;
+import com.evcharginstation.backend.service.EVStationService;
+import com.evcharginstation.backend.service.image.ImageStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load test of the station API, run with mvn -Ploadtest verify.
+ *
+ * <p>Starts the application on a random port with an in-memory H2 seeded with
+ * loadtest.stations stations spread over loadtest.images distinct images, drives it from
+ * loadtest.threads threads with the request mix of {@link Workload} and writes throughput
+ * and latency percentiles to target/loadtest-result.json. The process exits with status 1,
+ * failing the build, when the run regresses against the baseline (see
+ * {@link LoadTestBaseline}); with loadtest.baseline.record=true the run becomes the new
+ * baseline instead.
+ *
+ * <p>Every argument is also passed to the application, so application properties can be
+ * varied per run, for example --stations.writes.mode=write-behind. Admission control is
+ * off unless enabled that way, since all requests come from one address.
+ */
+public final class LoadTest {
+    private static final String IMAGE_NAME = "023d2e8c4029412e1532319af131e6d0";
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final long HIGHEST_LATENCY_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Path RESULT = Paths.get("target", "loadtest-result.json");
+    private static final Map<String, String> DEFAULT_ARGUMENTS = Map.of(
+            "spring.datasource.url", "jdbc:h2:mem:loadtest;DB_CLOSE_DELAY=-1",
+            "server.port", "0",
+            "stations.admission.enabled", "false",
+            "stations.images.directory", "target/loadtest/images",
+            "stations.writes.log-directory", "target/loadtest/write-behind",
+            "logging.level.root", "warn",
+            "logging.level.org.flywaydb", "error",
+            "logging.level.org.apache.catalina.loader", "error");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        byte[] image;
+        try (InputStream content = LoadTest.class.getResourceAsStream("/static/images/" + IMAGE_NAME + ".jpeg")) {
+            image = content.readAllBytes();
+        }
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(BackendApplication.class)
+                .initializers(applicationContext -> {
+                    LoadTestSettings settings = settings(applicationContext);
+                    images.putAll(images(image, settings.getImages()));
+                    FlywayMigrationStrategy seed = flyway -> {
+                        flyway.migrate();
+                        seedStations(flyway, settings.getStations(), new ArrayList<>(images.keySet()));
+                    };
+                    applicationContext.getBeanFactory().registerSingleton("loadTestSeed", seed);
+                })
+                .run(arguments(args));
+        List<String> regressions;
+        try {
+            regressions = run(context, images, image);
+        } finally {
+            context.close();
+        }
+        if (!regressions.isEmpty()) {
+            System.out.println("Load test regressed:");
+            regressions.forEach(regression -> System.out.println("  " + regression));
+            System.exit(1);
+        }
+    }
+
+    private static List<String> run(ConfigurableApplicationContext context, Map<String, byte[]> images, byte[] uploadImage) throws Exception {
+        LoadTestSettings settings = settings(context);
+        LoadTestBaseline baseline = Binder.get(context.getEnvironment()).bind("loadtest.baseline", LoadTestBaseline.class)
+                .orElseGet(LoadTestBaseline::new);
+        ObjectMapper objectMapper = context.getBean(ObjectMapper.class).copy()
+                .enable(SerializationFeature.INDENT_OUTPUT)
+                .disable(SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS);
+        storeImages(context.getBean(ImageStore.class), images);
+        long[] stationIds = context.getBean(JdbcTemplate.class).queryForList("SELECT STATION_ID FROM STATION", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        Workload workload = new Workload(settings.getMix(), URI.create("http://localhost:" + port),
+                stationIds, new ArrayList<>(images.keySet()), uploadImage, objectMapper);
+        System.out.println("Load test with " + settings);
+
+        LoadTestResult result = measure(workload, settings);
+        Files.createDirectories(RESULT.getParent());
+        objectMapper.writeValue(RESULT.toFile(), result);
+        print(result);
+
+        Path baselineFile = Paths.get(baseline.getFile());
+        if (baseline.isRecord()) {
+            Files.createDirectories(baselineFile.toAbsolutePath().getParent());
+            objectMapper.writeValue(baselineFile.toFile(), result);
+            System.out.println("Recorded the baseline in " + baselineFile);
+            return baseline.regressions(null, result);
+        }
+        if (!Files.exists(baselineFile)) {
+            System.out.println("No baseline in " + baselineFile + ", record one with --loadtest.baseline.record=true");
+            return baseline.regressions(null, result);
+        }
+        return baseline.regressions(objectMapper.readValue(baselineFile.toFile(), LoadTestResult.class), result);
+    }
+
+    private static LoadTestResult measure(Workload workload, LoadTestSettings settings) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long start = System.nanoTime();
+        long measureFrom = start + settings.getWarmup().toNanos();
+        long measureUntil = measureFrom + settings.getDuration().toNanos();
+        long intervalNanos = settings.getRate() > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) * settings.getThreads() / settings.getRate()) : 0;
+        List<Worker> workers = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(settings.getThreads());
+        for (int i = 0; i < settings.getThreads(); i++) {
+            // Spread the first requests of open-loop threads over one interval.
+            Worker worker = new Worker(client, workload, new SplittableRandom(i),
+                    start + intervalNanos * i / settings.getThreads(), intervalNanos, measureFrom, measureUntil);
+            workers.add(worker);
+            executor.execute(worker);
+        }
+        executor.shutdown();
+        if (!executor.awaitTermination(settings.getWarmup().plus(settings.getDuration()).toMinutes() + 5, TimeUnit.MINUTES)) {
+            throw new IllegalStateException("Load test threads did not finish");
+        }
+
+        double seconds = settings.getDuration().toNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        LoadTestResult result = new LoadTestResult();
+        result.setSettings(settings);
+        long total = 0;
+        for (Workload.Operation operation : Workload.Operation.values()) {
+            Histogram latencies = new Histogram(HIGHEST_LATENCY_NANOS, 3);
+            long errors = 0;
+            long rejected = 0;
+            for (Worker worker : workers) {
+                latencies.add(worker.latencies.get(operation));
+                errors += worker.errors.get(operation)[0];
+                rejected += worker.rejected.get(operation)[0];
+            }
+            if (latencies.getTotalCount() + errors + rejected > 0) {
+                result.getOperations().put(operation.key(), LoadTestResult.OperationResult.of(latencies, errors, rejected, seconds));
+                total += latencies.getTotalCount();
+            }
+        }
+        result.setThroughput(total / seconds);
+        return result;
+    }
+
+    private static void print(LoadTestResult result) {
+        System.out.printf("%-8s %10s %8s %8s %10s %9s %9s %9s %9s %9s%n",
+                "", "requests", "errors", "429", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        result.getOperations().forEach((name, operation) -> System.out.printf("%-8s %10d %8d %8d %10.1f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                name, operation.getCount(), operation.getErrors(), operation.getRejected(), operation.getThroughput(),
+                operation.getP50(), operation.getP90(), operation.getP99(), operation.getP999(), operation.getMax()));
+        System.out.printf("%-8s %10s %8s %8s %10.1f%n", "total", "", "", "", result.getThroughput());
+    }
+
+    private static LoadTestSettings settings(ConfigurableApplicationContext context) {
+        return Binder.get(context.getEnvironment()).bind("loadtest", LoadTestSettings.class).orElseGet(LoadTestSettings::new);
+    }
+
+    private static String[] arguments(String[] args) {
+        Map<String, String> defaults = new LinkedHashMap<>(DEFAULT_ARGUMENTS);
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                defaults.remove(arg.substring(2, arg.indexOf('=')));
+            }
+        }
+        List<String> arguments = new ArrayList<>();
+        defaults.forEach((name, value) -> arguments.add("--" + name + "=" + value));
+        arguments.addAll(List.of(args));
+        return arguments.toArray(new String[0]);
+    }
+
+    // Distinct images are the bundled one with a counter after the JPEG end marker, which
+    // decoders ignore.
+    private static Map<String, byte[]> images(byte[] image, int count) {
+        Map<String, byte[]> images = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            byte[] content = ByteBuffer.allocate(image.length + Long.BYTES).put(image).putLong(i).array();
+            images.put(DigestUtils.md5DigestAsHex(content), content);
+        }
+        return images;
+    }
+
+    private static void storeImages(ImageStore imageStore, Map<String, byte[]> images) throws IOException {
+        for (Map.Entry<String, byte[]> image : images.entrySet()) {
+            String key = EVStationImageVariants.originalKey(image.getKey());
+            if (!imageStore.exists(key)) {
+                Path stagingFile = imageStore.createStagingFile();
+                try {
+                    Files.write(stagingFile, image.getValue());
+                    imageStore.put(key, stagingFile);
+                } finally {
+                    Files.deleteIfExists(stagingFile);
+                }
+            }
+        }
+    }
+
+    // Runs before the search and spatial indexes are built, so they include the seed.
+    private static void seedStations(Flyway flyway, int stations, List<String> imageNames) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(flyway.getConfiguration().getDataSource());
+        Random random = new Random(42);
+        long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM STATION", Long.class);
+        List<Object[]> batch = new ArrayList<>(SEED_BATCH_SIZE);
+        for (long i = existing; i < stations; i++) {
+            batch.add(new Object[]{
+                    "Station " + i,
+                    EVStationService.IMAGE_PATH + imageNames.get((int) (i % imageNames.size())),
+                    Math.round(random.nextDouble() * 1000) / 100.0,
+                    i + " Load Test Road",
+                    29 + random.nextDouble() * 2,
+                    -99 + random.nextDouble() * 2
+            });
+            if (batch.size() == SEED_BATCH_SIZE) {
+                insert(jdbcTemplate, batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            insert(jdbcTemplate, batch);
+        }
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, List<Object[]> batch) {
+        jdbcTemplate.batchUpdate("INSERT INTO STATION(STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS, " +
+                "STATION_LATITUDE, STATION_LONGITUDE) VALUES (?, ?, ?, ?, ?, ?)", batch);
+    }
+
+    /**
+     * Sends requests back to back, or at fixed intervals in open-loop runs, and records the
+     * latency of the ones that start inside the measurement window.
+     */
+    private static final class Worker implements Runnable {
+        private final HttpClient client;
+        private final Workload workload;
+        private final SplittableRandom random;
+        private final long firstStart;
+        private final long intervalNanos;
+        private final long measureFrom;
+        private final long measureUntil;
+        private final Map<Workload.Operation, Histogram> latencies = new EnumMap<>(Workload.Operation.class);
+        private final Map<Workload.Operation, long[]> errors = new EnumMap<>(Workload.Operation.class);
+        private final Map<Workload.Operation, long[]> rejected = new EnumMap<>(Workload.Operation.class);
+
+        private Worker(HttpClient client, Workload workload, SplittableRandom random, long firstStart, long intervalNanos,
+                       long measureFrom, long measureUntil) {
+            this.client = client;
+            this.workload = workload;
+            this.random = random;
+            this.firstStart = firstStart;
+            this.intervalNanos = intervalNanos;
+            this.measureFrom = measureFrom;
+            this.measureUntil = measureUntil;
+            for (Workload.Operation operation : Workload.Operation.values()) {
+                this.latencies.put(operation, new Histogram(HIGHEST_LATENCY_NANOS, 3));
+                this.errors.put(operation, new long[1]);
+                this.rejected.put(operation, new long[1]);
+            }
+        }
+
+        @Override
+        public void run() {
+            long due = this.firstStart;
+            while (true) {
+                long start = System.nanoTime();
+                if (this.intervalNanos > 0) {
+                    if (due > start) {
+                        LockSupport.parkNanos(due - start);
+                    }
+                    start = due;
+                    due += this.intervalNanos;
+                }
+                if (start >= this.measureUntil) {
+                    return;
+                }
+                Workload.Request request = this.workload.next(this.random);
+                int status;
+                try {
+                    HttpResponse<byte[]> response = this.client.send(request.http, HttpResponse.BodyHandlers.ofByteArray());
+                    this.workload.completed(request, response);
+                    status = response.statusCode();
+                } catch (IOException e) {
+                    status = -1;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                long latency = System.nanoTime() - start;
+                if (start < this.measureFrom) {
+                    continue;
+                }
+                if (status == 429) {
+                    this.rejected.get(request.operation)[0]++;
+                } else if (status < 200 || status >= 400) {
+                    this.errors.get(request.operation)[0]++;
+                } else {
+                    this.latencies.get(request.operation).recordValue(Math.min(latency, HIGHEST_LATENCY_NANOS));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.evcharginstation.backend.loadtest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The regression gate, bound from loadtest.baseline.*. A run regresses when its overall
+ * throughput drops by more than throughput-tolerance, when the p50 or p99 of an operation
+ * grows by more than latency-tolerance and by more than latency-slack, or when more than
+ * max-error-rate of the requests of an operation fail.
+ */
+public class LoadTestBaseline {
+    private String file = "src/loadtest/baseline.json";
+    private boolean record;
+    private double throughputTolerance = 0.2;
+    private double latencyTolerance = 0.3;
+    private Duration latencySlack = Duration.ofMillis(2);
+    private double maxErrorRate = 0.01;
+
+    List<String> regressions(LoadTestResult baseline, LoadTestResult result) {
+        List<String> regressions = new ArrayList<>();
+        for (Map.Entry<String, LoadTestResult.OperationResult> operation : result.getOperations().entrySet()) {
+            if (operation.getValue().errorRate() > this.maxErrorRate) {
+                regressions.add(String.format("%s: %.2f%% of the requests failed", operation.getKey(), operation.getValue().errorRate() * 100));
+            }
+        }
+        if (baseline == null) {
+            return regressions;
+        }
+        if (!result.getSettings().isComparableTo(baseline.getSettings())) {
+            regressions.add("The baseline was recorded with different settings: " + baseline.getSettings());
+            return regressions;
+        }
+        if (result.getThroughput() < baseline.getThroughput() * (1 - this.throughputTolerance)) {
+            regressions.add(String.format("throughput: %.1f/s, baseline %.1f/s", result.getThroughput(), baseline.getThroughput()));
+        }
+        for (Map.Entry<String, LoadTestResult.OperationResult> operation : result.getOperations().entrySet()) {
+            LoadTestResult.OperationResult expected = baseline.getOperations().get(operation.getKey());
+            if (expected == null || expected.getCount() == 0) {
+                continue;
+            }
+            checkLatency(regressions, operation.getKey() + " p50", operation.getValue().getP50(), expected.getP50());
+            checkLatency(regressions, operation.getKey() + " p99", operation.getValue().getP99(), expected.getP99());
+        }
+        return regressions;
+    }
+
+    private void checkLatency(List<String> regressions, String name, double millis, double baselineMillis) {
+        double slackMillis = this.latencySlack.toNanos() / 1_000_000.0;
+        if (millis > baselineMillis * (1 + this.latencyTolerance) && millis - baselineMillis > slackMillis) {
+            regressions.add(String.format("%s: %.3f ms, baseline %.3f ms", name, millis, baselineMillis));
+        }
+    }
+
+    public String getFile() {
+        return file;
+    }
+
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    public boolean isRecord() {
+        return record;
+    }
+
+    public void setRecord(boolean record) {
+        this.record = record;
+    }
+
+    public double getThroughputTolerance() {
+        return throughputTolerance;
+    }
+
+    public void setThroughputTolerance(double throughputTolerance) {
+        this.throughputTolerance = throughputTolerance;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    public void setLatencyTolerance(double latencyTolerance) {
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public Duration getLatencySlack() {
+        return latencySlack;
+    }
+
+    public void setLatencySlack(Duration latencySlack) {
+        this.latencySlack = latencySlack;
+    }
+
+    public double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+
+    public void setMaxErrorRate(double maxErrorRate) {
+        this.maxErrorRate = maxErrorRate;
+    }
+}
@@ -0,0 +1,153 @@
+package com.evcharginstation.backend.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and latency percentiles of one run, per operation and overall. Latencies are
+ * in milliseconds. In open-loop runs they are measured from when a request was due, so a
+ * server that falls behind shows up in the percentiles instead of lowering the send rate.
+ */
+public class LoadTestResult {
+    private LoadTestSettings settings;
+    private double throughput;
+    private Map<String, OperationResult> operations = new LinkedHashMap<>();
+
+    public LoadTestSettings getSettings() {
+        return settings;
+    }
+
+    public void setSettings(LoadTestSettings settings) {
+        this.settings = settings;
+    }
+
+    public double getThroughput() {
+        return throughput;
+    }
+
+    public void setThroughput(double throughput) {
+        this.throughput = throughput;
+    }
+
+    public Map<String, OperationResult> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(Map<String, OperationResult> operations) {
+        this.operations = operations;
+    }
+
+    public static class OperationResult {
+        private long count;
+        private long errors;
+        private long rejected;
+        private double throughput;
+        private double p50;
+        private double p90;
+        private double p99;
+        private double p999;
+        private double max;
+
+        static OperationResult of(Histogram latencies, long errors, long rejected, double seconds) {
+            OperationResult result = new OperationResult();
+            result.count = latencies.getTotalCount();
+            result.errors = errors;
+            result.rejected = rejected;
+            result.throughput = result.count / seconds;
+            result.p50 = millis(latencies.getValueAtPercentile(50));
+            result.p90 = millis(latencies.getValueAtPercentile(90));
+            result.p99 = millis(latencies.getValueAtPercentile(99));
+            result.p999 = millis(latencies.getValueAtPercentile(99.9));
+            result.max = millis(latencies.getMaxValue());
+            return result;
+        }
+
+        private static double millis(long nanos) {
+            return Math.round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1) * 1000) / 1000.0;
+        }
+
+        /**
+         * Share of requests that failed with anything but 429, which admission control
+         * answers on purpose.
+         */
+        double errorRate() {
+            long total = count + errors + rejected;
+            return total == 0 ? 0 : errors / (double) total;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public void setErrors(long errors) {
+            this.errors = errors;
+        }
+
+        public long getRejected() {
+            return rejected;
+        }
+
+        public void setRejected(long rejected) {
+            this.rejected = rejected;
+        }
+
+        public double getThroughput() {
+            return throughput;
+        }
+
+        public void setThroughput(double throughput) {
+            this.throughput = throughput;
+        }
+
+        public double getP50() {
+            return p50;
+        }
+
+        public void setP50(double p50) {
+            this.p50 = p50;
+        }
+
+        public double getP90() {
+            return p90;
+        }
+
+        public void setP90(double p90) {
+            this.p90 = p90;
+        }
+
+        public double getP99() {
+            return p99;
+        }
+
+        public void setP99(double p99) {
+            this.p99 = p99;
+        }
+
+        public double getP999() {
+            return p999;
+        }
+
+        public void setP999(double p999) {
+            this.p999 = p999;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public void setMax(double max) {
+            this.max = max;
+        }
+    }
+}
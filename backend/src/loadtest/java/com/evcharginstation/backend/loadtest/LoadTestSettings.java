@@ -0,0 +1,89 @@
+package com.evcharginstation.backend.loadtest;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * What a run does, bound from loadtest.*. Results are only compared with a baseline that
+ * was recorded with the same settings.
+ */
+public class LoadTestSettings {
+    private int stations = 10_000;
+    private int images = 100;
+    private int threads = 16;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(30);
+    private double rate;
+    private String mix = Workload.DEFAULT_MIX;
+
+    public int getStations() {
+        return stations;
+    }
+
+    public void setStations(int stations) {
+        this.stations = stations;
+    }
+
+    public int getImages() {
+        return images;
+    }
+
+    public void setImages(int images) {
+        this.images = images;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public void setWarmup(Duration warmup) {
+        this.warmup = warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public void setDuration(Duration duration) {
+        this.duration = duration;
+    }
+
+    /**
+     * Requests per second over all threads. Zero runs closed-loop, each thread sending its
+     * next request as soon as the previous one completed.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    public void setRate(double rate) {
+        this.rate = rate;
+    }
+
+    public String getMix() {
+        return mix;
+    }
+
+    public void setMix(String mix) {
+        this.mix = mix;
+    }
+
+    boolean isComparableTo(LoadTestSettings other) {
+        return stations == other.stations && images == other.images && threads == other.threads
+                && duration.equals(other.duration) && rate == other.rate && Objects.equals(mix, other.mix);
+    }
+
+    @Override
+    public String toString() {
+        return "stations=" + stations + ", images=" + images + ", threads=" + threads + ", warmup=" + warmup
+                + ", duration=" + duration + ", rate=" + (rate > 0 ? rate + "/s" : "closed-loop") + ", mix=" + mix;
+    }
+}
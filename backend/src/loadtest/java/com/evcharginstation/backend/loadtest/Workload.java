@@ -0,0 +1,186 @@
+package com.evcharginstation.backend.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A weighted mix of station API requests, given as "list=45,get=45,image=8,add=0.7,...".
+ * Reads go to random seeded stations and images. Deletes only remove stations added by
+ * the run itself and turn into adds while there are none, so the catalogue keeps its size.
+ */
+final class Workload {
+    static final String DEFAULT_MIX = "list=45,get=45,image=8,add=0.7,update=0.6,delete=0.7";
+    private static final String BOUNDARY = "loadtest-boundary";
+
+    enum Operation {
+        LIST,
+        GET,
+        IMAGE,
+        ADD,
+        UPDATE,
+        DELETE;
+
+        String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    static final class Request {
+        final Operation operation;
+        final HttpRequest http;
+        private final Long deletedId;
+
+        private Request(Operation operation, HttpRequest http, Long deletedId) {
+            this.operation = operation;
+            this.http = http;
+            this.deletedId = deletedId;
+        }
+    }
+
+    private final Operation[] operations;
+    private final double[] cumulativeWeights;
+    private final URI baseUri;
+    private final long[] stationIds;
+    private final List<String> imageNames;
+    private final byte[] uploadImage;
+    private final ObjectMapper objectMapper;
+    private final Queue<Long> added = new ConcurrentLinkedQueue<>();
+
+    Workload(String mix, URI baseUri, long[] stationIds, List<String> imageNames, byte[] uploadImage, ObjectMapper objectMapper) {
+        Map<Operation, Double> weights = parse(mix);
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new double[this.operations.length];
+        double total = 0;
+        for (int i = 0; i < this.operations.length; i++) {
+            total += weights.get(this.operations[i]);
+            this.cumulativeWeights[i] = total;
+        }
+        for (int i = 0; i < this.cumulativeWeights.length; i++) {
+            this.cumulativeWeights[i] /= total;
+        }
+        this.baseUri = baseUri;
+        this.stationIds = stationIds;
+        this.imageNames = imageNames;
+        this.uploadImage = uploadImage;
+        this.objectMapper = objectMapper;
+    }
+
+    static Map<Operation, Double> parse(String mix) {
+        Map<Operation, Double> weights = new EnumMap<>(Operation.class);
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Mix entries look like list=45, not " + entry);
+            }
+            Operation operation = Operation.valueOf(parts[0].trim().toUpperCase(Locale.ROOT));
+            double weight = Double.parseDouble(parts[1].trim());
+            if (weight < 0 || !Double.isFinite(weight)) {
+                throw new IllegalArgumentException("Weight of " + operation.key() + " must be a non-negative number");
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("The mix has no operation with a positive weight");
+        }
+        return weights;
+    }
+
+    Request next(SplittableRandom random) {
+        double draw = random.nextDouble();
+        Operation operation = this.operations[this.operations.length - 1];
+        for (int i = 0; i < this.operations.length; i++) {
+            if (draw < this.cumulativeWeights[i]) {
+                operation = this.operations[i];
+                break;
+            }
+        }
+        switch (operation) {
+            case LIST:
+                return new Request(operation, get("/api/stations?size=20&sort=asc&param=STATION_PRICING&minPrice=" + random.nextInt(10))
+                        .header("Accept-Encoding", "gzip").build(), null);
+            case GET:
+                return new Request(operation, get("/api/stations/show/" + randomStation(random)).build(), null);
+            case IMAGE:
+                return new Request(operation, get("/api/stations/images/" + this.imageNames.get(random.nextInt(this.imageNames.size()))).build(), null);
+            case UPDATE:
+                return new Request(operation, request("/api/stations/" + randomStation(random) + "?price=" + random.nextInt(1000) / 100.0)
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody()).build(), null);
+            case DELETE:
+                Long id = this.added.poll();
+                if (id != null) {
+                    return new Request(operation, request("/api/stations/delete/" + id).DELETE().build(), id);
+                }
+                return add(random);
+            default:
+                return add(random);
+        }
+    }
+
+    /**
+     * Remembers added stations for later deletes, and puts back a station whose delete did
+     * not go through.
+     */
+    void completed(Request request, HttpResponse<byte[]> response) {
+        if (request.operation == Operation.ADD && response.statusCode() == 201) {
+            try {
+                this.added.add(this.objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else if (request.deletedId != null && response.statusCode() >= 400) {
+            this.added.add(request.deletedId);
+        }
+    }
+
+    private Request add(SplittableRandom random) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        field(body, "name", "LOADTEST / SITE " + random.nextInt(100));
+        field(body, "price", Double.toString(random.nextInt(1000) / 100.0));
+        field(body, "address", random.nextInt(10_000) + " Load Test Road");
+        field(body, "latitude", Double.toString(30 + random.nextDouble()));
+        field(body, "longitude", Double.toString(-98 + random.nextDouble()));
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"image\"; filename=\"station.jpeg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n");
+        body.writeBytes(this.uploadImage);
+        write(body, "\r\n--" + BOUNDARY + "--\r\n");
+        return new Request(Operation.ADD, request("/api/stations")
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.toByteArray())).build(), null);
+    }
+
+    private long randomStation(SplittableRandom random) {
+        return this.stationIds[random.nextInt(this.stationIds.length)];
+    }
+
+    private HttpRequest.Builder get(String path) {
+        return request(path).GET();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(this.baseUri.resolve(path));
+    }
+
+    private static void field(ByteArrayOutputStream body, String name, String value) {
+        write(body, "--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n");
+    }
+
+    private static void write(ByteArrayOutputStream body, String text) {
+        body.writeBytes(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
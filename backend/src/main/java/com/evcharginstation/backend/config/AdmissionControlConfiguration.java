@@ -0,0 +1,50 @@
+package com.evcharginstation.backend.config;
+
+import com.evcharginstation.backend.controller.AdmissionControlFilter;
+import com.evcharginstation.backend.controller.ClientRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Puts the AdmissionControlFilter in front of /api/*. It runs after the actuator's request
+ * metrics filter, so rejected requests still show up in http.server.requests with status 429.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "stations.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfiguration {
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            MeterRegistry meterRegistry,
+            @Value("${stations.admission.rate-limit.requests-per-second:50}") double requestsPerSecond,
+            @Value("${stations.admission.rate-limit.burst:100}") int burst,
+            @Value("${stations.admission.rate-limit.maximum-clients:100000}") long maximumClients,
+            @Value("${stations.admission.api-keys:}") Set<String> apiKeys,
+            @Value("${stations.admission.concurrency.list:32}") int listConcurrency,
+            @Value("${stations.admission.concurrency.image:64}") int imageConcurrency,
+            @Value("${stations.admission.concurrency.write:16}") int writeConcurrency,
+            @Value("${stations.admission.queue-timeout:PT0.5S}") Duration queueTimeout,
+            @Value("${stations.admission.shedding.queue-time-p99:PT0.2S}") Duration sheddingThreshold,
+            @Value("${stations.admission.shedding.window:PT10S}") Duration sheddingWindow
+    ) {
+        Map<AdmissionControlFilter.EndpointClass, Integer> concurrency = new EnumMap<>(AdmissionControlFilter.EndpointClass.class);
+        concurrency.put(AdmissionControlFilter.EndpointClass.LIST, listConcurrency);
+        concurrency.put(AdmissionControlFilter.EndpointClass.IMAGE, imageConcurrency);
+        concurrency.put(AdmissionControlFilter.EndpointClass.WRITE, writeConcurrency);
+        AdmissionControlFilter filter = new AdmissionControlFilter(new ClientRateLimiter(requestsPerSecond, burst, maximumClients),
+                apiKeys, concurrency, queueTimeout, sheddingThreshold, sheddingWindow, meterRegistry);
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
@@ -0,0 +1,59 @@
+package com.evcharginstation.backend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * With stations.datasource.replica.urls set, read-only transactions (every read in
+ * EVStationService) run on the read replicas and everything else on the primary from
+ * spring.datasource. Replication itself is up to the database, so a read right after a
+ * write may not see it yet. The station cache does not keep replica reads made within
+ * stations.datasource.replica.max-lag (default 5 seconds) of the last write, so such a
+ * read is never cached under the new catalogue version; the search and spatial indexes
+ * are fed from the write path.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "stations.datasource.replica", name = "urls")
+public class DataSourceConfiguration {
+    @Bean(destroyMethod = "close")
+    public ReadWriteRoutingDataSource routingDataSource(
+            DataSourceProperties properties,
+            @Value("${stations.datasource.replica.urls}") List<String> replicaUrls,
+            @Value("${stations.datasource.replica.username:#{null}}") String username,
+            @Value("${stations.datasource.replica.password:#{null}}") String password
+    ) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        List<DataSource> replicas = new ArrayList<>(replicaUrls.size());
+        for (String url : replicaUrls) {
+            HikariDataSource replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .driverClassName(properties.determineDriverClassName())
+                    .url(url.trim())
+                    .username(username != null ? username : properties.determineUsername())
+                    .password(password != null ? password : properties.determinePassword())
+                    .build();
+            replica.setPoolName("replica-" + replicas.size());
+            replica.setReadOnly(true);
+            replicas.add(replica);
+        }
+        return new ReadWriteRoutingDataSource(primary, replicas);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
@@ -0,0 +1,107 @@
+package com.evcharginstation.backend.config;
+
+import com.evcharginstation.backend.service.image.ImageStore;
+import com.evcharginstation.backend.service.image.LocalImageStore;
+import com.evcharginstation.backend.service.image.S3ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3ClientBuilder;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+
+/**
+ * Picks the image store with stations.images.store: {@code local} keeps images in
+ * stations.images.directory, {@code s3} in the bucket stations.images.s3.bucket, shared by
+ * every node. A store is seeded with the images bundled under static/images that it does
+ * not have yet, since the seed stations refer to them.
+ */
+@Configuration(proxyBeanMethods = false)
+public class ImageStoreConfiguration {
+    private static final Logger LOGGER = LoggerFactory.getLogger(ImageStoreConfiguration.class);
+    private static final String BUNDLED_IMAGES = "classpath*:static/images/*.jpeg";
+
+    @Bean
+    @ConditionalOnProperty(name = "stations.images.store", havingValue = "local", matchIfMissing = true)
+    public ImageStore localImageStore(@Value("${stations.images.directory:data/images}") Path directory) throws IOException {
+        LocalImageStore imageStore = new LocalImageStore(directory);
+        seed(imageStore);
+        return imageStore;
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "stations.images.store", havingValue = "s3")
+    public S3ImageStore s3ImageStore(
+            @Value("${stations.images.s3.bucket}") String bucket,
+            @Value("${stations.images.s3.prefix:}") String prefix,
+            @Value("${stations.images.s3.endpoint:#{null}}") URI endpoint,
+            @Value("${stations.images.s3.region:us-east-1}") String region,
+            @Value("${stations.images.s3.path-style-access:false}") boolean pathStyleAccess,
+            @Value("${stations.images.s3.access-key:#{null}}") String accessKey,
+            @Value("${stations.images.s3.secret-key:#{null}}") String secretKey,
+            @Value("${stations.images.s3.redirect-expiry:#{null}}") Duration redirectExpiry,
+            @Value("${stations.images.s3.staging-directory:${java.io.tmpdir}/station-images}") Path stagingDirectory
+    ) throws IOException {
+        AwsCredentialsProvider credentials = accessKey != null
+                ? StaticCredentialsProvider.create(AwsBasicCredentials.create(accessKey, secretKey))
+                : DefaultCredentialsProvider.create();
+        S3Configuration s3Configuration = S3Configuration.builder().pathStyleAccessEnabled(pathStyleAccess).build();
+        S3ClientBuilder client = S3Client.builder()
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        S3Presigner.Builder presigner = S3Presigner.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentials)
+                .serviceConfiguration(s3Configuration);
+        if (endpoint != null) {
+            client.endpointOverride(endpoint);
+            presigner.endpointOverride(endpoint);
+        }
+        S3ImageStore imageStore = new S3ImageStore(client.build(), presigner.build(), bucket, prefix, redirectExpiry, stagingDirectory);
+        seed(imageStore);
+        return imageStore;
+    }
+
+    static void seed(ImageStore imageStore) throws IOException {
+        int seeded = 0;
+        for (Resource image : new PathMatchingResourcePatternResolver().getResources(BUNDLED_IMAGES)) {
+            String key = image.getFilename();
+            if (key == null || !key.matches("[0-9a-f]{32}\\.jpeg") || imageStore.exists(key)) {
+                continue;
+            }
+            Path stagingFile = imageStore.createStagingFile();
+            try (InputStream content = image.getInputStream()) {
+                Files.copy(content, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+                imageStore.put(key, stagingFile);
+                seeded++;
+            } finally {
+                Files.deleteIfExists(stagingFile);
+            }
+        }
+        if (seeded > 0) {
+            LOGGER.info("Seeded image store with {} bundled images", seeded);
+        }
+    }
+}
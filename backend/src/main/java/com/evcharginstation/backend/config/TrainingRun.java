@@ -0,0 +1,42 @@
+package com.evcharginstation.backend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Training run for the AppCDS archive (mvn -Pappcds package). Once the application is
+ * ready it requests the station list once, so the classes used by a real request end up
+ * in the archive too, and then exits.
+ */
+@Component
+@ConditionalOnProperty(name = "stations.startup.training-run", havingValue = "true")
+public class TrainingRun {
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrainingRun.class);
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void exit(ApplicationReadyEvent event) {
+        ConfigurableApplicationContext context = event.getApplicationContext();
+        String port = context.getEnvironment().getProperty("local.server.port");
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/api/stations").openConnection();
+            try (InputStream body = connection.getInputStream()) {
+                body.readAllBytes();
+            }
+            LOGGER.info("Training request finished with status {}", connection.getResponseCode());
+        } catch (IOException e) {
+            LOGGER.warn("Training request failed", e);
+        }
+        System.exit(SpringApplication.exit(context));
+    }
+}
@@ -0,0 +1,248 @@
+package com.evcharginstation.backend.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Admission control in front of the station API, answering 429 with Retry-After instead of
+ * letting excess requests queue up for Tomcat threads and database connections:
+ * <ul>
+ *     <li>a token bucket per client, identified by a known X-API-Key or else the remote address,</li>
+ *     <li>a concurrency limit per endpoint class (list, image, write) with a short wait for a permit,</li>
+ *     <li>load shedding for a class while the p99 of that wait is above the threshold.</li>
+ * </ul>
+ * The p99 is taken from the stations.admission.queue timer once a second, off the request path.
+ * Only keys listed in stations.admission.api-keys get a bucket of their own. Any other key
+ * is ignored, so inventing keys neither escapes the limit of an address nor fills the
+ * client table and evicts the buckets of real clients.
+ *
+ * <p>A request that goes async, such as the NDJSON export or an async image write, keeps
+ * its permit until the async request completes, fails or times out. The event stream is
+ * the exception. Its connections stay open for as long as the client listens and are
+ * bounded by stations.events.maximum-subscribers, so they return their permit as soon as
+ * the stream has been opened.
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    public static final String API_KEY_HEADER = "X-API-Key";
+    private static final String IMAGE_PATH = "/api/stations/images/";
+    private static final String EVENTS_PATH = "/api/stations/events";
+    private static final Duration EVALUATION_INTERVAL = Duration.ofSeconds(1);
+
+    public enum EndpointClass {
+        LIST,
+        IMAGE,
+        WRITE
+    }
+
+    private final ClientRateLimiter rateLimiter;
+    private final Set<String> apiKeys;
+    private final Map<EndpointClass, Admission> admissions = new EnumMap<>(EndpointClass.class);
+    private final long queueTimeoutNanos;
+    private final long sheddingThresholdNanos;
+    private final ScheduledExecutorService evaluator;
+
+    public AdmissionControlFilter(ClientRateLimiter rateLimiter, Set<String> apiKeys, Map<EndpointClass, Integer> concurrency,
+                                  Duration queueTimeout, Duration sheddingThreshold, Duration sheddingWindow, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.apiKeys = Set.copyOf(apiKeys);
+        this.queueTimeoutNanos = queueTimeout.toNanos();
+        this.sheddingThresholdNanos = sheddingThreshold.toNanos();
+        for (EndpointClass endpointClass : EndpointClass.values()) {
+            this.admissions.put(endpointClass, new Admission(endpointClass, concurrency.get(endpointClass), sheddingWindow, meterRegistry));
+        }
+        this.evaluator = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-control");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.evaluator.scheduleWithFixedDelay(this::evaluate, EVALUATION_INTERVAL.toMillis(), EVALUATION_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Admission admission = this.admissions.get(classify(request));
+        long retryNanos = this.rateLimiter.acquire(client(request));
+        if (retryNanos > 0) {
+            reject(response, admission.rateLimited, retryNanos);
+            return;
+        }
+        if (admission.shedding) {
+            reject(response, admission.shed, EVALUATION_INTERVAL.toNanos());
+            return;
+        }
+        if (!admission.acquire(this.queueTimeoutNanos)) {
+            reject(response, admission.overloaded, EVALUATION_INTERVAL.toNanos());
+            return;
+        }
+        boolean released = true;
+        try {
+            filterChain.doFilter(request, response);
+            if (request.isAsyncStarted() && !request.getRequestURI().startsWith(EVENTS_PATH)) {
+                request.getAsyncContext().addListener(new PermitRelease(admission.permits));
+                released = false;
+            }
+        } finally {
+            if (released) {
+                admission.permits.release();
+            }
+        }
+    }
+
+    void evaluate() {
+        for (Admission admission : this.admissions.values()) {
+            admission.shedding = admission.queueTimeP99Nanos() > this.sheddingThresholdNanos;
+        }
+    }
+
+    boolean isShedding(EndpointClass endpointClass) {
+        return this.admissions.get(endpointClass).shedding;
+    }
+
+    @Override
+    public void destroy() {
+        this.evaluator.shutdownNow();
+    }
+
+    static EndpointClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (!HttpMethod.GET.matches(method) && !HttpMethod.HEAD.matches(method)) {
+            return EndpointClass.WRITE;
+        }
+        return request.getRequestURI().startsWith(IMAGE_PATH) ? EndpointClass.IMAGE : EndpointClass.LIST;
+    }
+
+    private String client(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && this.apiKeys.contains(apiKey)) {
+            return "key:" + apiKey;
+        }
+        return "address:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, Counter counter, long retryNanos) {
+        counter.increment();
+        long retrySeconds = Math.max(1, (retryNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retrySeconds));
+    }
+
+    private static final class PermitRelease implements AsyncListener {
+        private final Semaphore permits;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitRelease(Semaphore permits) {
+            this.permits = permits;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            release();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void release() {
+            if (this.released.compareAndSet(false, true)) {
+                this.permits.release();
+            }
+        }
+    }
+
+    private static final class Admission {
+        private final Semaphore permits;
+        private final Timer queueTime;
+        private final Counter rateLimited;
+        private final Counter overloaded;
+        private final Counter shed;
+        private volatile boolean shedding;
+
+        private Admission(EndpointClass endpointClass, int concurrency, Duration sheddingWindow, MeterRegistry meterRegistry) {
+            String name = endpointClass.name().toLowerCase();
+            this.permits = new Semaphore(concurrency);
+            this.queueTime = Timer.builder("stations.admission.queue")
+                    .description("Time requests waited for a concurrency permit")
+                    .tag("endpoint", name)
+                    .publishPercentiles(0.99)
+                    .distributionStatisticExpiry(sheddingWindow)
+                    .distributionStatisticBufferLength(2)
+                    .register(meterRegistry);
+            this.rateLimited = rejected(meterRegistry, name, "rate-limit");
+            this.overloaded = rejected(meterRegistry, name, "concurrency");
+            this.shed = rejected(meterRegistry, name, "shed");
+            Gauge.builder("stations.admission.shedding", this, admission -> admission.shedding ? 1 : 0)
+                    .description("Whether requests of the endpoint class are being shed")
+                    .tag("endpoint", name)
+                    .register(meterRegistry);
+        }
+
+        private static Counter rejected(MeterRegistry meterRegistry, String endpoint, String reason) {
+            return Counter.builder("stations.admission.rejected")
+                    .description("Requests answered with 429")
+                    .tag("endpoint", endpoint)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        private boolean acquire(long timeoutNanos) {
+            if (this.permits.tryAcquire()) {
+                this.queueTime.record(0, TimeUnit.NANOSECONDS);
+                return true;
+            }
+            long start = System.nanoTime();
+            try {
+                return this.permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                this.queueTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        private double queueTimeP99Nanos() {
+            for (ValueAtPercentile percentile : this.queueTime.takeSnapshot().percentileValues()) {
+                if (percentile.percentile() == 0.99) {
+                    return percentile.value(TimeUnit.NANOSECONDS);
+                }
+            }
+            return 0;
+        }
+    }
+}
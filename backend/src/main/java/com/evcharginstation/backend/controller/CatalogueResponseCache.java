@@ -0,0 +1,102 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.EVStationCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serialized and gzip-compressed bodies of the unpaged station listings, so repeated
+ * requests for the same listing are written straight from bytes. Every body is labelled
+ * with the catalogue ETag read before its stations were loaded. A body is therefore never
+ * labelled newer than its content, and it is rendered again once the catalogue moves on.
+ * Bodies rendered while read replicas may lag behind the last write are not kept.
+ */
+@Component
+public class CatalogueResponseCache implements MeterBinder {
+    private final Cache<String, Body> bodies;
+    private final ObjectMapper objectMapper;
+    private final EVStationCache evStationCache;
+
+    public CatalogueResponseCache(ObjectMapper objectMapper, EVStationCache evStationCache,
+                                  @Value("${stations.cache.response-maximum-size:64MB}") DataSize maximumSize) {
+        this.objectMapper = objectMapper;
+        this.evStationCache = evStationCache;
+        this.bodies = Caffeine.newBuilder()
+                .maximumWeight(maximumSize.toBytes())
+                .<String, Body>weigher((key, body) -> body.json.length + body.gzip.length)
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Loading and rendering run outside the cache lock, so a slow render of one listing never
+     * blocks readers of the others. Concurrent misses may render the same body more than once;
+     * the first one stored wins.
+     */
+    public Body get(String key, String eTag, Supplier<?> loader) {
+        Body cached = this.bodies.getIfPresent(key);
+        if (cached != null && Objects.equals(cached.eTag, eTag)) {
+            return cached;
+        }
+        Body rendered = render(eTag, loader.get());
+        if (this.evStationCache.replicaMayLag()) {
+            return rendered;
+        }
+        return this.bodies.asMap().merge(key, rendered, (current, fresh) -> Objects.equals(current.eTag, fresh.eTag) ? current : fresh);
+    }
+
+    private Body render(String eTag, Object value) {
+        try {
+            byte[] json = this.objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(json);
+            }
+            return new Body(eTag, json, compressed.toByteArray());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize station listing", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.bodies, "station-responses");
+    }
+
+    public static class Body {
+        private final String eTag;
+        private final byte[] json;
+        private final byte[] gzip;
+
+        private Body(String eTag, byte[] json, byte[] gzip) {
+            this.eTag = eTag;
+            this.json = json;
+            this.gzip = gzip;
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+    }
+}
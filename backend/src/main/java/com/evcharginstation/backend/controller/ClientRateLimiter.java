@@ -0,0 +1,60 @@
+package com.evcharginstation.backend.controller;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client, stored as the bucket's theoretical arrival time (GCRA): a
+ * request is admitted when that time, advanced by one emission interval, stays within the
+ * burst window ahead of now. Taking a token is a single compare-and-set on one AtomicLong,
+ * so clients never contend with each other and a client only with itself. A bucket idle for
+ * longer than the burst window is full again, so it is evicted after that.
+ */
+public class ClientRateLimiter {
+    private final long emissionIntervalNanos;
+    private final long burstWindowNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public ClientRateLimiter(double requestsPerSecond, int burst, long maximumClients) {
+        this(requestsPerSecond, burst, maximumClients, System::nanoTime);
+    }
+
+    ClientRateLimiter(double requestsPerSecond, int burst, long maximumClients, LongSupplier nanoClock) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate and burst must be positive");
+        }
+        this.emissionIntervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond));
+        this.burstWindowNanos = this.emissionIntervalNanos * burst;
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maximumClients)
+                .expireAfterAccess(Duration.ofNanos(this.burstWindowNanos))
+                .build();
+    }
+
+    /**
+     * Takes a token for the client. Returns 0 when the request is admitted, otherwise the
+     * nanoseconds until the next token is available.
+     */
+    public long acquire(String client) {
+        long now = this.nanoClock.getAsLong();
+        AtomicLong arrival = this.buckets.get(client, key -> new AtomicLong(now));
+        while (true) {
+            long current = arrival.get();
+            long next = Math.max(current, now) + this.emissionIntervalNanos;
+            long ahead = next - now;
+            if (ahead > this.burstWindowNanos) {
+                return ahead - this.burstWindowNanos;
+            }
+            if (arrival.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.persistency.jdbc.ConnectorState;
+import com.evcharginstation.backend.service.ConnectorStatusStore;
+import com.evcharginstation.backend.service.ConnectorStatusUpdate;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/stations")
+public class ConnectorStatusController {
+    static final int MAX_AVAILABILITY_IDS = 1000;
+    private final ConnectorStatusStore connectorStatusStore;
+
+    public ConnectorStatusController(ConnectorStatusStore connectorStatusStore) {
+        this.connectorStatusStore = connectorStatusStore;
+    }
+
+    /**
+     * Accepts a batch of connector heartbeats. They are applied in memory and persisted
+     * with the next flush, so the response only reports how many were accepted. Timestamps
+     * ahead of the server clock are taken as the time of receipt; otherwise one skewed
+     * heartbeat would make every later one for that connector look stale.
+     */
+    @PostMapping(value = "/connectors/status", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Map<String, Integer>> updateStatus(@RequestBody List<ConnectorStatusUpdate> updates) {
+        Instant received = Instant.now();
+        int accepted = 0;
+        for (ConnectorStatusUpdate update : updates) {
+            if (update.getStationId() != null && update.getConnectorId() != null
+                    && this.connectorStatusStore.update(update.getStationId(), update.getConnectorId(), update.getStatus(),
+                    Optional.ofNullable(update.getTimestamp()).filter(timestamp -> !timestamp.isAfter(received)).orElse(received))) {
+                accepted++;
+            }
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        result.put("accepted", accepted);
+        result.put("rejected", updates.size() - accepted);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @GetMapping(value = "/{id}/connectors")
+    public ResponseEntity<List<ConnectorState>> getConnectors(@PathVariable Long id) {
+        return this.connectorStatusStore.getConnectors(id)
+                .map(connectors -> ResponseEntity.status(HttpStatus.OK).body(connectors))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
+    }
+
+    /**
+     * Live availability of the given stations, keyed by station id. Stations without
+     * connectors are left out. The ETag follows the connector status flushes and not the
+     * catalogue, so station lists stay cacheable while connectors change.
+     */
+    @GetMapping(value = "/availability")
+    public ResponseEntity<Map<Long, ConnectorStatusStore.Availability>> getAvailability(
+            @RequestParam(value = "ids") List<Long> ids,
+            WebRequest request
+    ) {
+        if (ids.isEmpty() || ids.size() > MAX_AVAILABILITY_IDS) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+        if (request.checkNotModified(this.connectorStatusStore.getAvailabilityETag())) {
+            return null;
+        }
+        Map<Long, ConnectorStatusStore.Availability> availability = new LinkedHashMap<>();
+        for (Long id : ids) {
+            this.connectorStatusStore.getAvailability(id).ifPresent(value -> availability.put(id, value));
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
+                .body(availability);
+    }
+}
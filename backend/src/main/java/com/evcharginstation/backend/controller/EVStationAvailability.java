@@ -0,0 +1,90 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.ConnectorStatusStore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Merges live connector availability into station responses as a "connectors" property
+ * while the response is built. The pre-rendered catalogue bodies never contain it, and a
+ * response that does is tagged with both the catalogue and the availability version, so
+ * the catalogue ETag keeps following station writes only.
+ */
+@Component
+public class EVStationAvailability {
+    static final String INCLUDE_AVAILABILITY = "availability";
+    static final String CONNECTORS_PROPERTY = "connectors";
+
+    private final ConnectorStatusStore connectorStatusStore;
+
+    public EVStationAvailability(ConnectorStatusStore connectorStatusStore) {
+        this.connectorStatusStore = connectorStatusStore;
+    }
+
+    /**
+     * Whether an include parameter such as {@code include=availability} asks for it.
+     *
+     * @throws IllegalArgumentException for anything else that is asked to be included
+     */
+    static boolean requested(String include) {
+        if (include == null) {
+            return false;
+        }
+        for (String name : include.split(",")) {
+            if (!name.trim().equalsIgnoreCase(INCLUDE_AVAILABILITY)) {
+                throw new IllegalArgumentException("Unknown include " + name);
+            }
+        }
+        return true;
+    }
+
+    public String eTag(String catalogueETag) {
+        return catalogueETag.substring(0, catalogueETag.length() - 1) + "-a" + this.connectorStatusStore.getAvailabilityVersion() + "\"";
+    }
+
+    public List<?> merge(List<?> stations) {
+        return stations.stream().map(this::merge).collect(Collectors.toList());
+    }
+
+    /**
+     * Accepts stations and sparse field rows, which always carry the id.
+     */
+    @SuppressWarnings("unchecked")
+    public Object merge(Object station) {
+        if (station instanceof EVStation) {
+            EVStation evStation = (EVStation) station;
+            return new AvailableStation(evStation, this.connectorStatusStore.getAvailability(evStation.getId()).orElse(null));
+        }
+        Map<String, Object> row = new LinkedHashMap<>((Map<String, Object>) station);
+        this.connectorStatusStore.getAvailability(((Number) row.get("id")).longValue())
+                .ifPresent(availability -> row.put(CONNECTORS_PROPERTY, availability));
+        return row;
+    }
+
+    public static class AvailableStation {
+        @JsonUnwrapped
+        private final EVStation station;
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private final ConnectorStatusStore.Availability connectors;
+
+        private AvailableStation(EVStation station, ConnectorStatusStore.Availability connectors) {
+            this.station = station;
+            this.connectors = connectors;
+        }
+
+        public EVStation getStation() {
+            return station;
+        }
+
+        public ConnectorStatusStore.Availability getConnectors() {
+            return connectors;
+        }
+    }
+}
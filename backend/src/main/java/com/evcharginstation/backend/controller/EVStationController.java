@@ -1,10 +1,20 @@
 package com.evcharginstation.backend.controller;
 
 import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.CatalogueVersion;
+import com.evcharginstation.backend.service.EVStationFields;
+import com.evcharginstation.backend.service.EVStationPage;
+import com.evcharginstation.backend.service.EVStationPriceSummary;
+import com.evcharginstation.backend.service.EVStationSearchResult;
 import com.evcharginstation.backend.service.EVStationService;
-import org.springframework.core.io.ByteArrayResource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.core.io.Resource;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -12,80 +22,361 @@ import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 @RestController
 @RequestMapping("/api/stations")
 public class EVStationController {
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final long SENDFILE_MINIMUM_BYTES = 48 * 1024;
+    static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final Pattern VERSION_TAG = Pattern.compile("\"(\\d{1,18})\"");
     private final EVStationService evStationService;
-    public EVStationController(EVStationService evStationService) {
+    private final CatalogueVersion catalogueVersion;
+    private final CatalogueResponseCache catalogueResponseCache;
+    private final ObjectMapper objectMapper;
+    private final EVStationAvailability evStationAvailability;
+    public EVStationController(EVStationService evStationService, CatalogueVersion catalogueVersion,
+                               CatalogueResponseCache catalogueResponseCache, ObjectMapper objectMapper,
+                               EVStationAvailability evStationAvailability) {
         this.evStationService = evStationService;
+        this.catalogueVersion = catalogueVersion;
+        this.catalogueResponseCache = catalogueResponseCache;
+        this.objectMapper = objectMapper;
+        this.evStationAvailability = evStationAvailability;
     }
 
+    /**
+     * Every listing is validated against the catalogue version before anything is loaded,
+     * so polling clients get a 304 without touching the service. Unpaged listings are
+     * written from pre-rendered, pre-compressed bodies. With include=availability the live
+     * connector availability is merged into every station; such listings are rendered per
+     * request and tagged with the availability version as well.
+     */
     @GetMapping
-    public List<EVStation> getEVStations(
+    public ResponseEntity<?> getEVStations(
             @RequestParam(value = "limit", required = false) Integer limit,
             @RequestParam(value = "sort", required = false) String sort,
-            @RequestParam(value = "param", required = false) String param
+            @RequestParam(value = "param", required = false) String param,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "minPrice", required = false) Float minPrice,
+            @RequestParam(value = "maxPrice", required = false) Float maxPrice,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest request
     ) {
+        try {
+            boolean availability = EVStationAvailability.requested(include);
+            String eTag = this.catalogueVersion.getETag();
+            if (request.checkNotModified(availability ? this.evStationAvailability.eTag(eTag) : eTag, this.catalogueVersion.getLastModified())) {
+                return null;
+            }
+            EVStationFields projection = Optional.ofNullable(fields).map(EVStationFields::parse).orElse(null);
+            if (isPaged(cursor, size, minPrice, maxPrice)) {
+                int pageSize = Optional.ofNullable(size).orElse(DEFAULT_PAGE_SIZE);
+                return pageResponse(projection == null
+                        ? this.evStationService.getEVStationPage(sort, param, cursor, pageSize, minPrice, maxPrice)
+                        : this.evStationService.getEVStationPage(sort, param, cursor, pageSize, minPrice, maxPrice, projection),
+                        availability);
+            }
+            String sortParam = Optional.ofNullable(param).orElse("default");
+            if (availability) {
+                return ResponseEntity.status(HttpStatus.OK)
+                        .cacheControl(CacheControl.noCache())
+                        .body(this.evStationAvailability.merge(listing(limit, sort, sortParam, projection)));
+            }
+            CatalogueResponseCache.Body body = this.catalogueResponseCache.get(listingKey(limit, sort, sortParam, projection), eTag,
+                    () -> listing(limit, sort, sortParam, projection));
+            ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .cacheControl(CacheControl.noCache())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING);
+            if (acceptsGzip(acceptEncoding)) {
+                return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(body.getGzip());
+            }
+            return response.body(body.getJson());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    /**
+     * With fields given, only the requested columns are read from the database and written
+     * to the response.
+     */
+    private List<?> listing(Integer limit, String sort, String sortParam, EVStationFields projection) {
+        if (Optional.ofNullable(limit).isPresent()) {
+            return projection == null
+                    ? this.evStationService.getLimitedEVStations(limit)
+                    : this.evStationService.getLimitedEVStations(limit, projection);
+        } else if (Optional.ofNullable(sort).isPresent()) {
+            return projection == null
+                    ? this.evStationService.getSortedEVStations(sort, sortParam)
+                    : this.evStationService.getSortedEVStations(sort, sortParam, projection);
+        }
+        return projection == null ? this.evStationService.getEVStations() : this.evStationService.getEVStations(projection);
+    }
+
+    private static String listingKey(Integer limit, String sort, String sortParam, EVStationFields projection) {
+        String key;
         if (Optional.ofNullable(limit).isPresent()) {
-            return this.evStationService.getLimitedEVStations(limit);
-        } else if (Optional.ofNullable(sort).isPresent() && !Optional.ofNullable(param).isPresent()) {
-            return this.evStationService.getSortedEVStations(sort, "default");
+            key = "limit=" + limit;
         } else if (Optional.ofNullable(sort).isPresent()) {
-            return this.evStationService.getSortedEVStations(sort, param);
+            key = "sort=" + sort.toLowerCase(Locale.ROOT) + "&param=" + sortParam.toLowerCase(Locale.ROOT);
+        } else {
+            key = "all";
+        }
+        return projection == null ? key : key + "&fields=" + projection.key();
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static boolean isPaged(String cursor, Integer size, Float minPrice, Float maxPrice) {
+        return Optional.ofNullable(cursor).isPresent() || Optional.ofNullable(size).isPresent()
+                || Optional.ofNullable(minPrice).isPresent() || Optional.ofNullable(maxPrice).isPresent();
+    }
+
+    private ResponseEntity<List<?>> pageResponse(EVStationPage<?> page, boolean availability) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache());
+        page.getNextCursor().ifPresent(next -> response.header(NEXT_CURSOR_HEADER, next));
+        return response.body(availability ? this.evStationAvailability.merge(page.getStations()) : page.getStations());
+    }
+
+    @GetMapping(value = "/nearby")
+    public ResponseEntity<List<?>> getNearbyEVStations(
+            @RequestParam(value = "lat") double latitude,
+            @RequestParam(value = "lon") double longitude,
+            @RequestParam(value = "radius", defaultValue = "10000") double radius,
+            @RequestParam(value = "k", defaultValue = "10") int k,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include,
+            WebRequest request
+    ) {
+        try {
+            boolean availability = EVStationAvailability.requested(include);
+            if (request.checkNotModified(listingETag(availability), this.catalogueVersion.getLastModified())) {
+                return null;
+            }
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
+                    .body(project(this.evStationService.getNearbyEVStations(latitude, longitude, radius, k), fields, availability));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping(value = "/search")
+    public ResponseEntity<List<?>> searchEVStations(
+            @RequestParam(value = "q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "fields", required = false) String fields,
+            @RequestParam(value = "include", required = false) String include,
+            WebRequest request
+    ) {
+        try {
+            boolean availability = EVStationAvailability.requested(include);
+            if (request.checkNotModified(listingETag(availability), this.catalogueVersion.getLastModified())) {
+                return null;
+            }
+            EVStationSearchResult result = this.evStationService.searchEVStations(query, page, size);
+            return ResponseEntity.status(HttpStatus.OK)
+                    .cacheControl(CacheControl.noCache())
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotal()))
+                    .body(project(result.getStations(), fields, availability));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
-        return this.evStationService.getEVStations();
+    }
+
+    /**
+     * Nearby and search results are resolved through the station cache, so their sparse
+     * fields are picked from the cached entities instead of being queried again.
+     */
+    private List<?> project(List<EVStation> stations, String fields, boolean availability) {
+        List<?> projected = fields == null ? stations : EVStationFields.parse(fields).project(stations);
+        return availability ? this.evStationAvailability.merge(projected) : projected;
+    }
+
+    private String listingETag(boolean availability) {
+        String eTag = this.catalogueVersion.getETag();
+        return availability ? this.evStationAvailability.eTag(eTag) : eTag;
+    }
+
+    @GetMapping(value = "/pricing")
+    public ResponseEntity<EVStationPriceSummary> getPriceSummary(
+            @RequestParam(value = "buckets", defaultValue = "10") int buckets,
+            @RequestParam(value = "minPrice", required = false) Float minPrice,
+            @RequestParam(value = "maxPrice", required = false) Float maxPrice,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(this.catalogueVersion.getETag(), this.catalogueVersion.getLastModified())) {
+            return null;
+        }
+        try {
+            return ResponseEntity.ok(this.evStationService.getPriceSummary(buckets, minPrice, maxPrice));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportEVStations(WebRequest request) {
+        if (request.checkNotModified(this.catalogueVersion.getETag(), this.catalogueVersion.getLastModified())) {
+            return null;
+        }
+        StreamingResponseBody body = outputStream -> {
+            JsonGenerator generator = this.objectMapper.getFactory().createGenerator(outputStream);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            this.evStationService.exportEVStations(station -> {
+                try {
+                    generator.writeObject(station);
+                    generator.writeRaw('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.flush();
+        };
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping(value = "/images/{image}")
-    public ResponseEntity<Resource> getImage(@PathVariable("image") String image) {
+    public ResponseEntity<Resource> getImage(
+            @PathVariable("image") String image,
+            @RequestParam(value = "size", required = false) String size,
+            HttpServletRequest request,
+            WebRequest webRequest
+    ) {
         try {
-            final ByteArrayResource imageStream = this.evStationService.getImage(image);
+            Optional<URI> redirect = this.evStationService.getImageRedirect(image, size);
+            if (redirect.isPresent()) {
+                return ResponseEntity.status(HttpStatus.TEMPORARY_REDIRECT)
+                        .location(redirect.get())
+                        .cacheControl(CacheControl.noStore())
+                        .build();
+            }
+            final Resource imageResource = this.evStationService.getImage(image, size);
+            String eTag = Optional.ofNullable(imageResource.getFilename())
+                    .map(fileName -> fileName.replace(".jpeg", ""))
+                    .orElse(image);
+            if (canSendFile(request, imageResource)) {
+                if (webRequest.checkNotModified(eTag)) {
+                    return null;
+                }
+                File file = imageResource.getFile();
+                request.setAttribute(SENDFILE_FILENAME, file.getAbsolutePath());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, file.length());
+                return ResponseEntity.status(HttpStatus.OK)
+                        .contentType(MediaType.IMAGE_JPEG)
+                        .contentLength(file.length())
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
+                        .build();
+            }
             return ResponseEntity.status(HttpStatus.OK)
-                    .contentType(MediaType.IMAGE_PNG)
-                    .contentLength(imageStream.contentLength())
+                    .contentType(MediaType.IMAGE_JPEG)
+                    .eTag(eTag)
                     .cacheControl(CacheControl.maxAge(Duration.ofDays(1)))
-                    .body(imageStream);
+                    .body(imageResource);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.notFound().build();
         }
     }
 
+    /**
+     * Large images without a Range header are handed to Tomcat's sendfile, which writes
+     * them from its poller with non-blocking I/O instead of holding the request thread
+     * until a slow client has read the whole file.
+     */
+    private static boolean canSendFile(HttpServletRequest request, Resource resource) throws IOException {
+        return Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))
+                && HttpMethod.GET.matches(request.getMethod())
+                && request.getHeader(HttpHeaders.RANGE) == null
+                && resource.isFile()
+                && resource.contentLength() >= SENDFILE_MINIMUM_BYTES;
+    }
+
     @PostMapping
     public ResponseEntity<EVStation> addEVStation(
             @RequestParam(name = "name") String name,
             @RequestParam(name = "price") float price,
             @RequestParam(name = "address") String address,
+            @RequestParam(name = "latitude", required = false) Double latitude,
+            @RequestParam(name = "longitude", required = false) Double longitude,
             @RequestParam("image") MultipartFile image
     ) {
         try {
             if (Objects.requireNonNull(image.getContentType()).startsWith("image/")) {
-                EVStation newEVStation  = this.evStationService.addEVStation(image, name, price, address);
+                EVStation newEVStation  = this.evStationService.addEVStation(image, name, price, address, latitude, longitude);
                 return ResponseEntity.status(HttpStatus.CREATED).body(newEVStation);
 
             } else {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
             }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
 
     }
 
+    /**
+     * A single station always comes with its live connector availability. The ETag stays the
+     * station version, since it is what If-Match on an edit is compared with.
+     */
     @GetMapping(value = "/show/{id}")
-    public ResponseEntity<EVStation> getStation(@PathVariable Long id) {
+    public ResponseEntity<Object> getStation(@PathVariable Long id) {
         Optional<EVStation> evStation =  this.evStationService.getEVStation(id);
-        return evStation.map(station -> ResponseEntity.status(HttpStatus.FOUND).body(station)).orElseGet(() -> ResponseEntity.notFound().build());
+        return evStation.map(station -> ResponseEntity.status(HttpStatus.FOUND).eTag(eTag(station)).body(this.evStationAvailability.merge(station)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @PutMapping(value = "/{id}/edit")
@@ -94,30 +385,83 @@ public class EVStationController {
             @RequestParam(name = "name") String name,
             @RequestParam(name = "price") float price,
             @RequestParam(name = "address") String address,
-            @RequestParam(name = "image", required = false) MultipartFile image
+            @RequestParam(name = "latitude", required = false) Double latitude,
+            @RequestParam(name = "longitude", required = false) Double longitude,
+            @RequestParam(name = "image", required = false) MultipartFile image,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
     ) {
         try {
+            EVStation station;
             if (Optional.ofNullable(image).isPresent() && Objects.requireNonNull(image.getContentType()).startsWith("image/")) {
-                return ResponseEntity
-                        .status(HttpStatus.OK)
-                        .body(this.evStationService.updateEVStation(id, name, price, address, image));
+                station = this.evStationService.updateEVStation(id, name, price, address, latitude, longitude, image, expectedVersion(ifMatch));
             } else {
-                return ResponseEntity
-                        .status(HttpStatus.OK)
-                        .body(this.evStationService.updateEVStation(id, name, price, address));
+                station = this.evStationService.updateEVStation(id, name, price, address, latitude, longitude, expectedVersion(ifMatch));
             }
+            return ResponseEntity.status(HttpStatus.OK).eTag(eTag(station)).body(station);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
 
+    @PatchMapping(value = "/{id}")
+    public ResponseEntity<EVStation> patchStation(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "name", required = false) String name,
+            @RequestParam(name = "price", required = false) Float price,
+            @RequestParam(name = "address", required = false) String address,
+            @RequestParam(name = "latitude", required = false) Double latitude,
+            @RequestParam(name = "longitude", required = false) Double longitude,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
+        try {
+            EVStation station = this.evStationService.patchEVStation(id, expectedVersion(ifMatch), name, price, address, null, latitude, longitude);
+            return ResponseEntity.status(HttpStatus.OK).eTag(eTag(station)).body(station);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
     @DeleteMapping(value = "/delete/{id}")
-    public ResponseEntity<String> deleteEVStation(@PathVariable("id") Long id) {
+    public ResponseEntity<String> deleteEVStation(
+            @PathVariable("id") Long id,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch
+    ) {
         try {
-            this.evStationService.deleteEVStation(id);
+            this.evStationService.deleteEVStation(id, expectedVersion(ifMatch));
             return ResponseEntity.status(HttpStatus.NO_CONTENT).build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+        } catch (EmptyResultDataAccessException e) {
+            return ResponseEntity.notFound().build();
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
         }
     }
+
+    private static String eTag(EVStation station) {
+        return "\"" + station.getVersion() + "\"";
+    }
+
+    /**
+     * The station version an If-Match header asks for, or null when any version will do.
+     * A tag that is not one of ours can never match.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        Matcher matcher = VERSION_TAG.matcher(ifMatch.trim());
+        if (!matcher.matches()) {
+            throw new OptimisticLockingFailureException("If-Match " + ifMatch + " does not name a station version");
+        }
+        return Long.parseLong(matcher.group(1));
+    }
 }
@@ -0,0 +1,33 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.EVStationEventStream;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/stations/events")
+public class EVStationEventController {
+    static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+    private final EVStationEventStream evStationEventStream;
+
+    public EVStationEventController(EVStationEventStream evStationEventStream) {
+        this.evStationEventStream = evStationEventStream;
+    }
+
+    @GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId
+    ) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(this.evStationEventStream.subscribe(lastEventId));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        }
+    }
+}
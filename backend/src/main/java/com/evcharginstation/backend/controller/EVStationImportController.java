@@ -0,0 +1,50 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.EVStationImportResult;
+import com.evcharginstation.backend.service.EVStationImportService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.InputStream;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/stations/import")
+public class EVStationImportController {
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+    private final EVStationImportService evStationImportService;
+
+    public EVStationImportController(EVStationImportService evStationImportService) {
+        this.evStationImportService = evStationImportService;
+    }
+
+    @PostMapping(consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<EVStationImportResult> importStations(
+            @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+            InputStream body
+    ) {
+        EVStationImportService.Format format = TEXT_CSV.isCompatibleWith(contentType)
+                ? EVStationImportService.Format.CSV
+                : EVStationImportService.Format.NDJSON;
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(this.evStationImportService.importStations(body, format));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+
+    @PostMapping(value = "/images", consumes = "application/zip")
+    public ResponseEntity<Map<String, String>> importImages(InputStream body) {
+        try {
+            return ResponseEntity.status(HttpStatus.OK).body(this.evStationImportService.importImages(body));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
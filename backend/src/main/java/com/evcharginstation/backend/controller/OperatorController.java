@@ -0,0 +1,73 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.CatalogueVersion;
+import com.evcharginstation.backend.service.OperatorService;
+import com.evcharginstation.backend.service.OperatorStations;
+import com.evcharginstation.backend.service.OperatorSummary;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/operators")
+public class OperatorController {
+    private static final String DEFAULT_PAGE_SIZE = "1000";
+    private final OperatorService operatorService;
+    private final CatalogueVersion catalogueVersion;
+
+    public OperatorController(OperatorService operatorService, CatalogueVersion catalogueVersion) {
+        this.operatorService = operatorService;
+        this.catalogueVersion = catalogueVersion;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<OperatorSummary>> getOperators(WebRequest request) {
+        if (request.checkNotModified(this.catalogueVersion.getETag(), this.catalogueVersion.getLastModified())) {
+            return null;
+        }
+        return ResponseEntity.status(HttpStatus.OK)
+                .cacheControl(CacheControl.noCache())
+                .body(this.operatorService.getOperators());
+    }
+
+    @GetMapping(value = "/{id}")
+    public ResponseEntity<OperatorSummary> getOperator(@PathVariable long id, WebRequest request) {
+        if (request.checkNotModified(this.catalogueVersion.getETag(), this.catalogueVersion.getLastModified())) {
+            return null;
+        }
+        return this.operatorService.getOperator(id)
+                .map(operator -> ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(operator))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Stations of one operator grouped by site, in pages of up to 10k stations. The next
+     * page is requested with after set to the next value of the previous one.
+     */
+    @GetMapping(value = "/{id}/stations")
+    public ResponseEntity<OperatorStations> getOperatorStations(
+            @PathVariable long id,
+            @RequestParam(value = "after", required = false) Long after,
+            @RequestParam(value = "size", defaultValue = DEFAULT_PAGE_SIZE) int size,
+            WebRequest request
+    ) {
+        if (request.checkNotModified(this.catalogueVersion.getETag(), this.catalogueVersion.getLastModified())) {
+            return null;
+        }
+        try {
+            return this.operatorService.getOperatorStations(id, after, size)
+                    .map(stations -> ResponseEntity.status(HttpStatus.OK).cacheControl(CacheControl.noCache()).body(stations))
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).build();
+        }
+    }
+}
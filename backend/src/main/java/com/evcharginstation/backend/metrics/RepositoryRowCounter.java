@@ -0,0 +1,49 @@
+package com.evcharginstation.backend.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Repository proxy advice recording how many rows each query method returned.
+ * Streams are skipped since counting them would mean consuming them.
+ */
+class RepositoryRowCounter implements MethodInterceptor {
+    private final ObjectProvider<StationMetrics> stationMetrics;
+    private final Class<?> repositoryInterface;
+
+    RepositoryRowCounter(ObjectProvider<StationMetrics> stationMetrics, Class<?> repositoryInterface) {
+        this.stationMetrics = stationMetrics;
+        this.repositoryInterface = repositoryInterface;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        long rows = rows(result);
+        if (rows >= 0) {
+            this.stationMetrics.getObject().repositoryRows(this.repositoryInterface, invocation.getMethod(), rows);
+        }
+        return result;
+    }
+
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        } else if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        } else if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        } else if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        } else if (result instanceof Stream || result instanceof Number || result instanceof Boolean) {
+            return -1;
+        }
+        return 1;
+    }
+}
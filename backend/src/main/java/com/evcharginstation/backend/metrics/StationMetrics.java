@@ -0,0 +1,74 @@
+package com.evcharginstation.backend.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Application meters that Spring Boot does not record on its own. Request timers
+ * (http.server.requests) and repository timers (spring.data.repository.invocations)
+ * come from the actuator; histogram and percentile settings for all of them are
+ * configured through management.metrics.distribution.* properties.
+ */
+@Component
+public class StationMetrics {
+    private final MeterRegistry meterRegistry;
+    private final Counter imageBytesRead;
+    private final Counter imageBytesWritten;
+    private final Timer imageHash;
+    private final Map<Method, DistributionSummary> repositoryRows = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Timer> serialization = new ConcurrentHashMap<>();
+
+    public StationMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.imageBytesRead = Counter.builder("stations.images.bytes")
+                .baseUnit("bytes")
+                .description("Image bytes served or stored")
+                .tag("direction", "read")
+                .register(meterRegistry);
+        this.imageBytesWritten = Counter.builder("stations.images.bytes")
+                .baseUnit("bytes")
+                .description("Image bytes served or stored")
+                .tag("direction", "written")
+                .register(meterRegistry);
+        this.imageHash = Timer.builder("stations.images.hash")
+                .description("Time spent hashing uploaded images")
+                .register(meterRegistry);
+    }
+
+    public void imageRead(long bytes) {
+        this.imageBytesRead.increment(bytes);
+    }
+
+    public void imageWritten(long bytes) {
+        this.imageBytesWritten.increment(bytes);
+    }
+
+    public void imageHashed(long nanos) {
+        this.imageHash.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void repositoryRows(Class<?> repository, Method method, long rows) {
+        this.repositoryRows.computeIfAbsent(method, key -> DistributionSummary.builder("stations.repository.rows")
+                .description("Rows returned per repository call")
+                .tag("repository", repository.getSimpleName())
+                .tag("method", key.getName())
+                .register(this.meterRegistry))
+                .record(rows);
+    }
+
+    public void serialized(Class<?> type, long nanos) {
+        this.serialization.computeIfAbsent(type, key -> Timer.builder("stations.serialization")
+                .description("Time spent writing JSON response bodies")
+                .tag("type", key.getSimpleName())
+                .register(this.meterRegistry))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package com.evcharginstation.backend.metrics;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Collection;
+
+/**
+ * Jackson converter that records how long writing each response body took, so the
+ * serialization share of a request can be told apart from the handler itself.
+ */
+public class TimedJacksonHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+    private final StationMetrics stationMetrics;
+
+    public TimedJacksonHttpMessageConverter(ObjectMapper objectMapper, StationMetrics stationMetrics) {
+        super(objectMapper);
+        this.stationMetrics = stationMetrics;
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException, HttpMessageNotWritableException {
+        long start = System.nanoTime();
+        try {
+            super.writeInternal(object, type, outputMessage);
+        } finally {
+            this.stationMetrics.serialized(object instanceof Collection ? Collection.class : object.getClass(), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+import java.time.Instant;
+
+public class ConnectorState {
+    private final long stationId;
+    private final int connectorId;
+    private final ConnectorStatus status;
+    private final Instant updatedAt;
+
+    public ConnectorState(long stationId, int connectorId, ConnectorStatus status, Instant updatedAt) {
+        this.stationId = stationId;
+        this.connectorId = connectorId;
+        this.status = status;
+        this.updatedAt = updatedAt;
+    }
+
+    public long getStationId() {
+        return stationId;
+    }
+
+    public int getConnectorId() {
+        return connectorId;
+    }
+
+    public ConnectorStatus getStatus() {
+        return status;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,44 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC access to connector states. Status changes are written as one batched MERGE
+ * per flush instead of one entity update per heartbeat.
+ */
+@Repository
+public class ConnectorStateRepository {
+    // Selecting from STATION makes a change for a station deleted in the meantime a no-op
+    // instead of a foreign key violation that would fail the whole batch.
+    private static final String MERGE = "MERGE INTO STATION_CONNECTOR " +
+            "(STATION_ID, CONNECTOR_ID, CONNECTOR_STATUS, STATUS_UPDATED) KEY (STATION_ID, CONNECTOR_ID) " +
+            "SELECT STATION_ID, ?, ?, ? FROM STATION WHERE STATION_ID = ?";
+    private static final String SELECT_ALL = "SELECT STATION_ID, CONNECTOR_ID, CONNECTOR_STATUS, STATUS_UPDATED FROM STATION_CONNECTOR";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConnectorStateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<ConnectorState> findAll() {
+        return this.jdbcTemplate.query(SELECT_ALL, (resultSet, row) -> new ConnectorState(
+                resultSet.getLong("STATION_ID"),
+                resultSet.getInt("CONNECTOR_ID"),
+                ConnectorStatus.valueOf(resultSet.getString("CONNECTOR_STATUS")),
+                resultSet.getTimestamp("STATUS_UPDATED").toInstant()));
+    }
+
+    public void saveAll(List<ConnectorState> states, int batchSize) {
+        this.jdbcTemplate.batchUpdate(MERGE, states, batchSize, (statement, state) -> {
+            statement.setInt(1, state.getConnectorId());
+            statement.setString(2, state.getStatus().name());
+            statement.setTimestamp(3, Timestamp.from(state.getUpdatedAt()));
+            statement.setLong(4, state.getStationId());
+        });
+    }
+}
@@ -0,0 +1,7 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+public enum ConnectorStatus {
+    AVAILABLE,
+    CHARGING,
+    FAULTED
+}
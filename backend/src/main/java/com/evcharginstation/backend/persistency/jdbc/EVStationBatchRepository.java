@@ -0,0 +1,47 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes complete station rows as one JDBC batch, for edits that were already validated
+ * and versioned before they were queued.
+ */
+@Repository
+public class EVStationBatchRepository {
+    private static final String UPDATE = "UPDATE STATION SET STATION_NAME = ?, STATION_PRICING = ?, STATION_ADDRESS = ?, " +
+            "STATION_IMAGE = ?, STATION_LATITUDE = ?, STATION_LONGITUDE = ?, STATION_VERSION = ?, SITE_ID = ? " +
+            "WHERE STATION_ID = ? AND STATION_VERSION < ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public EVStationBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Returns the update counts in the order of the given stations, grouped by batch. A
+     * count of zero means the station no longer exists or already has this or a newer
+     * version, as with a replayed log record that was flushed before. The site of each
+     * station is taken from siteIds, since queued stations do not carry it.
+     */
+    public int[][] updateAll(List<EVStation> stations, Function<EVStation, Long> siteIds, int batchSize) {
+        return this.jdbcTemplate.batchUpdate(UPDATE, stations, batchSize, (statement, station) -> {
+            statement.setString(1, station.getName());
+            statement.setFloat(2, station.getPrice());
+            statement.setString(3, station.getAddress());
+            statement.setString(4, station.getImage());
+            statement.setObject(5, station.getLatitude(), Types.DOUBLE);
+            statement.setObject(6, station.getLongitude(), Types.DOUBLE);
+            statement.setLong(7, station.getVersion());
+            statement.setObject(8, siteIds.apply(station), Types.BIGINT);
+            statement.setLong(9, station.getId());
+            statement.setLong(10, station.getVersion());
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks up and creates operators and sites by name, for assigning stations to the site
+ * their name refers to.
+ */
+@Repository
+public class OperatorSiteRepository {
+    private static final String SELECT_SITE = "SELECT SI.SITE_ID FROM SITE SI JOIN OPERATOR O ON O.OPERATOR_ID = SI.OPERATOR_ID " +
+            "WHERE O.OPERATOR_NAME = ? AND SI.SITE_NAME = ?";
+    private static final String MERGE_OPERATOR = "MERGE INTO OPERATOR (OPERATOR_NAME) KEY (OPERATOR_NAME) VALUES (?)";
+    private static final String MERGE_SITE = "MERGE INTO SITE (OPERATOR_ID, SITE_NAME) KEY (OPERATOR_ID, SITE_NAME) " +
+            "SELECT OPERATOR_ID, ? FROM OPERATOR WHERE OPERATOR_NAME = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public OperatorSiteRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public Optional<Long> findSiteId(String operator, String site) {
+        List<Long> ids = this.jdbcTemplate.queryForList(SELECT_SITE, Long.class, operator, site);
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Creates the operator and the site unless they exist and returns the site id.
+     */
+    public long mergeSite(String operator, String site) {
+        this.jdbcTemplate.update(MERGE_OPERATOR, operator);
+        this.jdbcTemplate.update(MERGE_SITE, site, operator);
+        return findSiteId(operator, site).orElseThrow();
+    }
+}
@@ -1,17 +1,25 @@
 package com.evcharginstation.backend.persistency.jpa.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.persistence.Entity;
 import javax.persistence.Table;
 import javax.persistence.Id;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Column;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Version;
+import javax.persistence.ManyToOne;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
 
 @Entity
 @Table(name = "STATION")
 public class EVStation {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "STATION_SEQ")
+    @SequenceGenerator(name = "STATION_SEQ", sequenceName = "STATION_SEQ", allocationSize = 50)
     @Column(name = "STATION_ID")
     private long id;
 
@@ -27,6 +35,22 @@ public class EVStation {
     @Column(name = "STATION_ADDRESS")
     private String address;
 
+    @Column(name = "STATION_LATITUDE")
+    private Double latitude;
+
+    @Column(name = "STATION_LONGITUDE")
+    private Double longitude;
+
+    @Version
+    @Column(name = "STATION_VERSION")
+    private long version;
+
+    // Derived from the name by EVStationSites whenever the name is written.
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "SITE_ID")
+    private Site site;
+
     public long getId() {
         return id;
     }
@@ -66,4 +90,36 @@ public class EVStation {
     public void setAddress(String address) {
         this.address = address;
     }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public Site getSite() {
+        return site;
+    }
+
+    public void setSite(Site site) {
+        this.site = site;
+    }
 }
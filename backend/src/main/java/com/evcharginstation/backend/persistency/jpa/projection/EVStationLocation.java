@@ -0,0 +1,9 @@
+package com.evcharginstation.backend.persistency.jpa.projection;
+
+public interface EVStationLocation {
+    long getId();
+
+    double getLatitude();
+
+    double getLongitude();
+}
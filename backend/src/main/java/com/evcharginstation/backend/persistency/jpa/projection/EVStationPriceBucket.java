@@ -0,0 +1,7 @@
+package com.evcharginstation.backend.persistency.jpa.projection;
+
+public interface EVStationPriceBucket {
+    int getBucket();
+
+    long getStations();
+}
@@ -0,0 +1,11 @@
+package com.evcharginstation.backend.persistency.jpa.projection;
+
+public interface EVStationPriceStatistics {
+    long getCount();
+
+    Float getMinimum();
+
+    Float getMaximum();
+
+    Double getAverage();
+}
@@ -0,0 +1,9 @@
+package com.evcharginstation.backend.persistency.jpa.projection;
+
+public interface EVStationText {
+    long getId();
+
+    String getName();
+
+    String getAddress();
+}
@@ -0,0 +1,17 @@
+package com.evcharginstation.backend.persistency.jpa.projection;
+
+public interface OperatorStatistics {
+    long getId();
+
+    String getName();
+
+    long getSites();
+
+    long getStations();
+
+    Float getMinimumPrice();
+
+    Double getAveragePrice();
+
+    Float getMaximumPrice();
+}
@@ -0,0 +1,24 @@
+package com.evcharginstation.backend.persistency.jpa.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sparse field queries. Only the requested columns are selected and every row comes
+ * back as an attribute name to value map, so no entity is loaded or dirty-checked.
+ */
+public interface EVStationFieldsRepository {
+    List<Map<String, Object>> findFieldsByPriceBetween(List<String> fields, float minPrice, float maxPrice, Sort sort);
+
+    List<Map<String, Object>> findFieldsByPriceBetween(List<String> fields, float minPrice, float maxPrice, Pageable pageable);
+
+    /**
+     * Keyset continuation of {@link #findFieldsByPriceBetween}: the first order of the
+     * pageable's sort is the keyset property and STATION_ID breaks ties.
+     */
+    List<Map<String, Object>> findFieldsAfter(List<String> fields, long lastId, Object lastValue,
+                                              float minPrice, float maxPrice, Pageable pageable);
+}
@@ -0,0 +1,88 @@
+package com.evcharginstation.backend.persistency.jpa.repository;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class EVStationFieldsRepositoryImpl implements EVStationFieldsRepository {
+    private final EntityManager entityManager;
+
+    public EVStationFieldsRepositoryImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByPriceBetween(List<String> fields, float minPrice, float maxPrice, Sort sort) {
+        return findBetween(fields, minPrice, maxPrice, sort, Pageable.unpaged());
+    }
+
+    @Override
+    public List<Map<String, Object>> findFieldsByPriceBetween(List<String> fields, float minPrice, float maxPrice, Pageable pageable) {
+        return findBetween(fields, minPrice, maxPrice, pageable.getSort(), pageable);
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public List<Map<String, Object>> findFieldsAfter(List<String> fields, long lastId, Object lastValue,
+                                                     float minPrice, float maxPrice, Pageable pageable) {
+        Sort.Order order = pageable.getSort().iterator().next();
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<EVStation> station = query.from(EVStation.class);
+        Path<Long> id = station.get("id");
+        Predicate after = order.isAscending() ? builder.greaterThan(id, lastId) : builder.lessThan(id, lastId);
+        if (!order.getProperty().equals("id")) {
+            Expression<Comparable> key = station.get(order.getProperty());
+            Comparable value = (Comparable) lastValue;
+            after = builder.or(
+                    order.isAscending() ? builder.greaterThan(key, value) : builder.lessThan(key, value),
+                    builder.and(builder.equal(key, value), after));
+        }
+        query.where(after, builder.between(station.get("price"), minPrice, maxPrice));
+        return find(fields, query, station, pageable.getSort(), pageable);
+    }
+
+    private List<Map<String, Object>> findBetween(List<String> fields, float minPrice, float maxPrice, Sort sort, Pageable pageable) {
+        CriteriaBuilder builder = this.entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<EVStation> station = query.from(EVStation.class);
+        query.where(builder.between(station.get("price"), minPrice, maxPrice));
+        return find(fields, query, station, sort, pageable);
+    }
+
+    private List<Map<String, Object>> find(List<String> fields, CriteriaQuery<Tuple> query, Root<EVStation> station,
+                                           Sort sort, Pageable pageable) {
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        fields.forEach(field -> selections.add(station.get(field).alias(field)));
+        query.multiselect(selections);
+        query.orderBy(QueryUtils.toOrders(sort, station, this.entityManager.getCriteriaBuilder()));
+        TypedQuery<Tuple> typedQuery = this.entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typedQuery.setFirstResult((int) pageable.getOffset());
+            typedQuery.setMaxResults(pageable.getPageSize());
+        }
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            fields.forEach(field -> row.put(field, tuple.get(field)));
+            rows.add(row);
+        }
+        return rows;
+    }
+}
@@ -1,13 +1,112 @@
 package com.evcharginstation.backend.persistency.jpa.repository;
 
 import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationLocation;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceBucket;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceStatistics;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationText;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface EVStationRepository extends JpaRepository<EVStation, Long> {
+public interface EVStationRepository extends JpaRepository<EVStation, Long>, EVStationFieldsRepository {
     List<EVStation> findAllByOrderByName(Pageable pageable);
+
+    List<EVStation> findAllByPriceBetween(float minPrice, float maxPrice, Pageable pageable);
+
+    long countByImage(String image);
+
+    /**
+     * Conditional edit in one statement: null arguments keep the current value, a null
+     * version skips the version check. A new name also sets the site, null when the name
+     * belongs to no site. Returns the updated row, or nothing when the station does not
+     * exist or its version did not match.
+     */
+    @Query(value = "SELECT * FROM FINAL TABLE (UPDATE STATION SET " +
+            "STATION_NAME = COALESCE(CAST(:name AS VARCHAR(64)), STATION_NAME), " +
+            "STATION_PRICING = COALESCE(CAST(:price AS DECFLOAT(4)), STATION_PRICING), " +
+            "STATION_ADDRESS = COALESCE(CAST(:address AS VARCHAR(64)), STATION_ADDRESS), " +
+            "STATION_IMAGE = COALESCE(CAST(:image AS VARCHAR(100)), STATION_IMAGE), " +
+            "STATION_LATITUDE = COALESCE(CAST(:latitude AS DOUBLE PRECISION), STATION_LATITUDE), " +
+            "STATION_LONGITUDE = COALESCE(CAST(:longitude AS DOUBLE PRECISION), STATION_LONGITUDE), " +
+            "SITE_ID = CASE WHEN CAST(:name AS VARCHAR(64)) IS NULL THEN SITE_ID ELSE CAST(:siteId AS BIGINT) END, " +
+            "STATION_VERSION = STATION_VERSION + 1 " +
+            "WHERE STATION_ID = :id AND (CAST(:version AS BIGINT) IS NULL OR STATION_VERSION = CAST(:version AS BIGINT)))", nativeQuery = true)
+    Optional<EVStation> updateIfVersion(@Param("id") long id, @Param("version") Long version, @Param("name") String name,
+                                        @Param("price") Float price, @Param("address") String address, @Param("image") String image,
+                                        @Param("latitude") Double latitude, @Param("longitude") Double longitude,
+                                        @Param("siteId") Long siteId);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select s from EVStation s order by s.id")
+    Stream<EVStation> streamAllByOrderById();
+
+    @Query("select s.id as id, s.latitude as latitude, s.longitude as longitude from EVStation s " +
+            "where s.latitude is not null and s.longitude is not null")
+    List<EVStationLocation> findAllLocations();
+
+    @Query("select s.id as id, s.name as name, s.address as address from EVStation s")
+    List<EVStationText> findAllText();
+
+    @Query("select s.id from EVStation s")
+    List<Long> findAllIds();
+
+    @Query("select s from EVStation s where s.id > :id " +
+            "and s.price between :minPrice and :maxPrice order by s.id asc")
+    List<EVStation> findPageAfterIdAscending(@Param("id") long id, @Param("minPrice") float minPrice,
+                                             @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    @Query("select s from EVStation s where s.id < :id " +
+            "and s.price between :minPrice and :maxPrice order by s.id desc")
+    List<EVStation> findPageAfterIdDescending(@Param("id") long id, @Param("minPrice") float minPrice,
+                                              @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    @Query("select s from EVStation s where (s.name > :name or (s.name = :name and s.id > :id)) " +
+            "and s.price between :minPrice and :maxPrice order by s.name asc, s.id asc")
+    List<EVStation> findPageAfterNameAscending(@Param("name") String name, @Param("id") long id, @Param("minPrice") float minPrice,
+                                               @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    @Query("select s from EVStation s where (s.name < :name or (s.name = :name and s.id < :id)) " +
+            "and s.price between :minPrice and :maxPrice order by s.name desc, s.id desc")
+    List<EVStation> findPageAfterNameDescending(@Param("name") String name, @Param("id") long id, @Param("minPrice") float minPrice,
+                                                @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    @Query("select s from EVStation s where (s.price > :price or (s.price = :price and s.id > :id)) " +
+            "and s.price between :minPrice and :maxPrice order by s.price asc, s.id asc")
+    List<EVStation> findPageAfterPriceAscending(@Param("price") float price, @Param("id") long id, @Param("minPrice") float minPrice,
+                                                @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    @Query("select s from EVStation s where (s.price < :price or (s.price = :price and s.id < :id)) " +
+            "and s.price between :minPrice and :maxPrice order by s.price desc, s.id desc")
+    List<EVStation> findPageAfterPriceDescending(@Param("price") float price, @Param("id") long id, @Param("minPrice") float minPrice,
+                                                 @Param("maxPrice") float maxPrice, Pageable pageable);
+
+    /**
+     * One page of the stations of an operator by id, with their sites and the operator
+     * fetched in the same query.
+     */
+    @Query("select s from EVStation s join fetch s.site si join fetch si.operator o " +
+            "where o.id = :operatorId and s.id > :id order by s.id asc")
+    List<EVStation> findOperatorPageAfterId(@Param("operatorId") long operatorId, @Param("id") long id, Pageable pageable);
+
+    @Query("select count(s) as count, min(s.price) as minimum, max(s.price) as maximum, avg(s.price) as average " +
+            "from EVStation s where s.price between :minPrice and :maxPrice")
+    EVStationPriceStatistics findPriceStatistics(@Param("minPrice") float minPrice, @Param("maxPrice") float maxPrice);
+
+    @Query(value = "SELECT GREATEST(LEAST(CAST(FLOOR((STATION_PRICING - :lowest) / :width) AS INT), :lastBucket), 0) AS BUCKET, COUNT(*) AS STATIONS " +
+            "FROM STATION WHERE STATION_PRICING BETWEEN :minPrice AND :maxPrice GROUP BY BUCKET ORDER BY BUCKET", nativeQuery = true)
+    List<EVStationPriceBucket> findPriceHistogram(@Param("lowest") float lowest, @Param("width") double width, @Param("lastBucket") int lastBucket,
+                                                  @Param("minPrice") float minPrice, @Param("maxPrice") float maxPrice);
 }
@@ -0,0 +1,24 @@
+package com.evcharginstation.backend.persistency.jpa.repository;
+
+import com.evcharginstation.backend.persistency.jpa.entity.Operator;
+import com.evcharginstation.backend.persistency.jpa.projection.OperatorStatistics;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OperatorRepository extends JpaRepository<Operator, Long> {
+    String STATISTICS = "select o.id as id, o.name as name, count(distinct s.site.id) as sites, count(s.id) as stations, " +
+            "min(s.price) as minimumPrice, avg(s.price) as averagePrice, max(s.price) as maximumPrice " +
+            "from Operator o left join Site si on si.operator = o left join EVStation s on s.site = si ";
+
+    @Query(STATISTICS + "group by o.id, o.name order by o.name")
+    List<OperatorStatistics> findAllStatistics();
+
+    @Query(STATISTICS + "where o.id = :id group by o.id, o.name")
+    Optional<OperatorStatistics> findStatistics(@Param("id") long id);
+}
@@ -0,0 +1,52 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of the whole station catalogue as seen by this instance. It is bumped after
+ * every committed station write, so an unchanged version means unchanged list responses.
+ * The boot timestamp is part of the ETag so a restart never reuses an old tag. It is
+ * bumped after the cache and indexes have applied the change, so a new tag is never
+ * served from stale state. Live connector availability is not part of the catalogue; it
+ * has its own version in {@link ConnectorStatusStore}.
+ */
+@Component
+public class CatalogueVersion {
+    private final long bootTime = System.currentTimeMillis();
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModified = Instant.ofEpochMilli(bootTime).getEpochSecond() * 1000;
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationChanged(EVStationChangedEvent event) {
+        this.version.incrementAndGet();
+        this.lastModified = Instant.now().getEpochSecond() * 1000;
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationsImported(EVStationsImportedEvent event) {
+        this.version.incrementAndGet();
+        this.lastModified = Instant.now().getEpochSecond() * 1000;
+    }
+
+    public long getVersion() {
+        return version.get();
+    }
+
+    public String getETag() {
+        return "\"" + Long.toHexString(bootTime) + "-" + version.get() + "\"";
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+}
@@ -0,0 +1,321 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.ConnectorState;
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStateRepository;
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStatus;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live connector status of every station. Heartbeats only touch memory: each station's
+ * connectors are guarded by their own lock, so updates for different stations never
+ * contend. Status changes are collected per station and written in one batched statement
+ * per flush interval, so a connector changing many times between flushes costs a single
+ * row write. Heartbeats older than the last one seen for a connector are ignored.
+ *
+ * <p>Availability has its own version, bumped once per flush with changes, so the station
+ * catalogue and its ETags stay unaffected by heartbeat traffic.
+ */
+@Component
+public class ConnectorStatusStore implements MeterBinder {
+    static final int MAX_CONNECTOR_ID = 255;
+    private static final Logger LOGGER = LoggerFactory.getLogger(ConnectorStatusStore.class);
+
+    private final EVStationRepository evStationRepository;
+    private final ConnectorStateRepository connectorStateRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long bootTime = System.currentTimeMillis();
+    private final AtomicLong availabilityVersion = new AtomicLong();
+    private final int batchSize;
+    private final Map<Long, StationConnectors> stations = new ConcurrentHashMap<>();
+    private final Set<Long> changedStations = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder applied = new LongAdder();
+    private final LongAdder stale = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    public ConnectorStatusStore(EVStationRepository evStationRepository, ConnectorStateRepository connectorStateRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${stations.connectors.flush-interval:PT1S}") Duration flushInterval,
+                                @Value("${stations.connectors.batch-size:500}") int batchSize) {
+        this.evStationRepository = evStationRepository;
+        this.connectorStateRepository = connectorStateRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connector-status-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        for (Long id : this.evStationRepository.findAllIds()) {
+            this.stations.putIfAbsent(id, new StationConnectors());
+        }
+        for (ConnectorState state : this.connectorStateRepository.findAll()) {
+            StationConnectors connectors = this.stations.get(state.getStationId());
+            if (connectors != null) {
+                connectors.restore(state);
+            }
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationChanged(EVStationChangedEvent event) {
+        if (event.getType() == EVStationChangedEvent.Type.DELETED) {
+            this.stations.remove(event.getId());
+            this.changedStations.remove(event.getId());
+        } else {
+            this.stations.putIfAbsent(event.getId(), new StationConnectors());
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationsImported(EVStationsImportedEvent event) {
+        event.getStations().forEach(station -> this.stations.putIfAbsent(station.getId(), new StationConnectors()));
+    }
+
+    /**
+     * Applies one heartbeat. Returns false when the station is unknown or the connector id
+     * is out of range.
+     */
+    public boolean update(long stationId, int connectorId, ConnectorStatus status, Instant timestamp) {
+        StationConnectors connectors = this.stations.get(stationId);
+        if (connectors == null || connectorId < 1 || connectorId > MAX_CONNECTOR_ID || status == null) {
+            this.rejected.increment();
+            return false;
+        }
+        switch (connectors.apply(connectorId, status, timestamp)) {
+            case CHANGED:
+                this.changedStations.add(stationId);
+                this.applied.increment();
+                break;
+            case UNCHANGED:
+                this.applied.increment();
+                break;
+            default:
+                this.stale.increment();
+        }
+        return true;
+    }
+
+    public Optional<Availability> getAvailability(long stationId) {
+        return Optional.ofNullable(this.stations.get(stationId))
+                .map(connectors -> connectors.availability)
+                .filter(availability -> availability.getTotal() > 0);
+    }
+
+    public long getAvailabilityVersion() {
+        return this.availabilityVersion.get();
+    }
+
+    /**
+     * Changes at most once per flush interval, and with every restart.
+     */
+    public String getAvailabilityETag() {
+        return "\"" + Long.toHexString(this.bootTime) + "-" + this.availabilityVersion.get() + "\"";
+    }
+
+    public Optional<List<ConnectorState>> getConnectors(long stationId) {
+        return Optional.ofNullable(this.stations.get(stationId)).map(connectors -> connectors.states(stationId));
+    }
+
+    /**
+     * Writes the status changes collected since the last flush. A failed write is retried
+     * with the next flush unless a newer change has replaced it.
+     */
+    void flush() {
+        List<ConnectorState> changes = new ArrayList<>();
+        for (Iterator<Long> iterator = this.changedStations.iterator(); iterator.hasNext(); ) {
+            Long stationId = iterator.next();
+            iterator.remove();
+            StationConnectors connectors = this.stations.get(stationId);
+            if (connectors != null) {
+                connectors.drainChanges(stationId, changes);
+            }
+        }
+        if (changes.isEmpty()) {
+            return;
+        }
+        this.availabilityVersion.incrementAndGet();
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> this.connectorStateRepository.saveAll(changes, this.batchSize));
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not persist {} connector status changes, retrying with the next flush", changes.size(), e);
+            for (ConnectorState change : changes) {
+                StationConnectors connectors = this.stations.get(change.getStationId());
+                if (connectors != null && connectors.markChanged(change.getConnectorId())) {
+                    this.changedStations.add(change.getStationId());
+                }
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stations.connectors.updates", this.applied, LongAdder::doubleValue)
+                .tag("result", "applied").register(registry);
+        FunctionCounter.builder("stations.connectors.updates", this.stale, LongAdder::doubleValue)
+                .tag("result", "stale").register(registry);
+        FunctionCounter.builder("stations.connectors.updates", this.rejected, LongAdder::doubleValue)
+                .tag("result", "rejected").register(registry);
+        Gauge.builder("stations.connectors.pending", this.changedStations, Set::size)
+                .description("Stations with connector changes waiting to be persisted")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.flusher.shutdownNow();
+        flush();
+    }
+
+    public static class Availability {
+        private final int total;
+        private final int available;
+        private final int charging;
+        private final int faulted;
+
+        public Availability(int total, int available, int charging, int faulted) {
+            this.total = total;
+            this.available = available;
+            this.charging = charging;
+            this.faulted = faulted;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getAvailable() {
+            return available;
+        }
+
+        public int getCharging() {
+            return charging;
+        }
+
+        public int getFaulted() {
+            return faulted;
+        }
+    }
+
+    private enum Outcome {
+        CHANGED,
+        UNCHANGED,
+        STALE
+    }
+
+    private static final class Connector {
+        private ConnectorStatus status;
+        private Instant since;
+        private Instant lastSeen;
+    }
+
+    private static final class StationConnectors {
+        private final Map<Integer, Connector> connectors = new HashMap<>(4);
+        private final Set<Integer> changed = new HashSet<>(4);
+        private volatile Availability availability = new Availability(0, 0, 0, 0);
+
+        synchronized Outcome apply(int connectorId, ConnectorStatus status, Instant timestamp) {
+            Connector connector = this.connectors.computeIfAbsent(connectorId, id -> new Connector());
+            if (connector.lastSeen != null && timestamp.isBefore(connector.lastSeen)) {
+                return Outcome.STALE;
+            }
+            connector.lastSeen = timestamp;
+            if (connector.status == status) {
+                return Outcome.UNCHANGED;
+            }
+            connector.status = status;
+            connector.since = timestamp;
+            this.changed.add(connectorId);
+            recount();
+            return Outcome.CHANGED;
+        }
+
+        synchronized void restore(ConnectorState state) {
+            Connector connector = this.connectors.computeIfAbsent(state.getConnectorId(), id -> new Connector());
+            if (connector.status == null) {
+                connector.status = state.getStatus();
+                connector.since = state.getUpdatedAt();
+                connector.lastSeen = state.getUpdatedAt();
+                recount();
+            }
+        }
+
+        synchronized void drainChanges(long stationId, List<ConnectorState> changes) {
+            for (Integer connectorId : this.changed) {
+                Connector connector = this.connectors.get(connectorId);
+                changes.add(new ConnectorState(stationId, connectorId, connector.status, connector.since));
+            }
+            this.changed.clear();
+        }
+
+        synchronized boolean markChanged(int connectorId) {
+            return this.connectors.containsKey(connectorId) && this.changed.add(connectorId);
+        }
+
+        synchronized List<ConnectorState> states(long stationId) {
+            List<ConnectorState> states = new ArrayList<>(this.connectors.size());
+            this.connectors.forEach((connectorId, connector) ->
+                    states.add(new ConnectorState(stationId, connectorId, connector.status, connector.since)));
+            states.sort(Comparator.comparingInt(ConnectorState::getConnectorId));
+            return states;
+        }
+
+        private void recount() {
+            int available = 0;
+            int charging = 0;
+            int faulted = 0;
+            for (Connector connector : this.connectors.values()) {
+                if (connector.status == ConnectorStatus.AVAILABLE) {
+                    available++;
+                } else if (connector.status == ConnectorStatus.CHARGING) {
+                    charging++;
+                } else {
+                    faulted++;
+                }
+            }
+            this.availability = new Availability(this.connectors.size(), available, charging, faulted);
+        }
+    }
+}
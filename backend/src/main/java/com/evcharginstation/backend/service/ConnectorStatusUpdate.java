@@ -0,0 +1,47 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStatus;
+
+import java.time.Instant;
+
+/**
+ * One heartbeat as reported by a station. Without a timestamp the time of arrival is used.
+ */
+public class ConnectorStatusUpdate {
+    private Long stationId;
+    private Integer connectorId;
+    private ConnectorStatus status;
+    private Instant timestamp;
+
+    public Long getStationId() {
+        return stationId;
+    }
+
+    public void setStationId(Long stationId) {
+        this.stationId = stationId;
+    }
+
+    public Integer getConnectorId() {
+        return connectorId;
+    }
+
+    public void setConnectorId(Integer connectorId) {
+        this.connectorId = connectorId;
+    }
+
+    public ConnectorStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(ConnectorStatus status) {
+        this.status = status;
+    }
+
+    public Instant getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Instant timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -0,0 +1,197 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache for single stations and for whole sorted listings ("views").
+ * Writes are applied after commit. A reader only keeps what it loaded if no write was
+ * committed while it was loading, so a slow read can never re-insert a stale row.
+ *
+ * <p>With read replicas, read-only loads may not see a write that was just committed on
+ * the primary. Such loads are served but not kept while the last write is less than
+ * stations.datasource.replica.max-lag old, so a lagging read is never pinned in the cache
+ * under the new catalogue version.
+ */
+@Component
+public class EVStationCache implements MeterBinder {
+    private final Cache<Long, EVStation> stations;
+    private final Cache<String, List<?>> views;
+    private final AtomicLong generation = new AtomicLong();
+    private final long replicaMaxLagNanos;
+    private volatile long lastWriteNanos;
+
+    public EVStationCache(
+            @Value("${stations.cache.maximum-size:10000}") long maximumSize,
+            @Value("${stations.cache.time-to-live:PT10M}") Duration timeToLive,
+            @Value("${stations.cache.view-maximum-stations:200000}") long viewMaximumStations,
+            @Value("${stations.datasource.replica.urls:}") String replicaUrls,
+            @Value("${stations.datasource.replica.max-lag:PT5S}") Duration replicaMaxLag
+    ) {
+        this.replicaMaxLagNanos = replicaUrls.isBlank() ? 0 : replicaMaxLag.toNanos();
+        this.lastWriteNanos = System.nanoTime() - this.replicaMaxLagNanos;
+        this.stations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+        this.views = Caffeine.newBuilder()
+                .maximumWeight(viewMaximumStations)
+                .<String, List<?>>weigher((key, view) -> Math.max(1, view.size()))
+                .expireAfterWrite(timeToLive)
+                .recordStats()
+                .build();
+    }
+
+    public Optional<EVStation> getStation(long id, Function<Long, Optional<EVStation>> loader) {
+        EVStation cached = this.stations.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long loadedAt = this.generation.get();
+        boolean keep = !mayLag();
+        Optional<EVStation> loaded = loader.apply(id);
+        loaded.ifPresent(station -> {
+            if (keep) {
+                this.stations.put(id, station);
+                if (this.generation.get() != loadedAt) {
+                    this.stations.invalidate(id);
+                }
+            }
+        });
+        return loaded;
+    }
+
+    /**
+     * Resolves several stations at once, loading every miss in a single call and keeping
+     * the order of ids. Ids the loader does not return are skipped.
+     */
+    public List<EVStation> getStations(List<Long> ids, Function<List<Long>, List<EVStation>> loader) {
+        Map<Long, EVStation> found = new HashMap<>(this.stations.getAllPresent(ids));
+        List<Long> missing = new ArrayList<>();
+        ids.stream().filter(id -> !found.containsKey(id)).forEach(missing::add);
+        if (!missing.isEmpty()) {
+            long loadedAt = this.generation.get();
+            boolean keep = !mayLag();
+            for (EVStation station : loader.apply(missing)) {
+                found.put(station.getId(), station);
+                if (keep) {
+                    this.stations.put(station.getId(), station);
+                }
+            }
+            if (keep && this.generation.get() != loadedAt) {
+                this.stations.invalidateAll(missing);
+            }
+        }
+        List<EVStation> ordered = new ArrayList<>(ids.size());
+        ids.stream().map(found::get).filter(Objects::nonNull).forEach(ordered::add);
+        return ordered;
+    }
+
+    public List<EVStation> getView(String key, Supplier<List<EVStation>> loader) {
+        return view(key, loader);
+    }
+
+    /**
+     * Sparse field listings share the view cache and its invalidation, under their own keys.
+     */
+    public List<Map<String, Object>> getProjectedView(String key, Supplier<List<Map<String, Object>>> loader) {
+        return view(key, loader);
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<List<EVStation>> peekView(String key) {
+        return Optional.ofNullable((List<EVStation>) this.views.getIfPresent(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> List<T> view(String key, Supplier<List<T>> loader) {
+        List<T> cached = (List<T>) this.views.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadedAt = this.generation.get();
+        boolean keep = !mayLag();
+        List<T> loaded = Collections.unmodifiableList(loader.get());
+        if (keep) {
+            this.views.put(key, loaded);
+            if (this.generation.get() != loadedAt) {
+                this.views.invalidate(key);
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Whether read replicas may still be missing the last write committed through this
+     * instance, so what is read from them now should not be kept.
+     */
+    public boolean replicaMayLag() {
+        return this.replicaMaxLagNanos > 0 && System.nanoTime() - this.lastWriteNanos < this.replicaMaxLagNanos;
+    }
+
+    // Read-only transactions are the ones routed to a replica.
+    private boolean mayLag() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && replicaMayLag();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationChanged(EVStationChangedEvent event) {
+        this.lastWriteNanos = System.nanoTime();
+        this.generation.incrementAndGet();
+        if (event.getType() == EVStationChangedEvent.Type.DELETED || event.getStation() == null) {
+            this.stations.invalidate(event.getId());
+        } else {
+            this.stations.put(event.getId(), event.getStation());
+        }
+        this.views.invalidateAll();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationsImported(EVStationsImportedEvent event) {
+        this.lastWriteNanos = System.nanoTime();
+        this.generation.incrementAndGet();
+        event.getStations().forEach(station -> this.stations.put(station.getId(), station));
+        this.views.invalidateAll();
+    }
+
+    public CacheStats stationStats() {
+        return this.stations.stats();
+    }
+
+    public CacheStats viewStats() {
+        return this.views.stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, this.stations, "stations");
+        CaffeineCacheMetrics.monitor(registry, this.views, "station-views");
+    }
+}
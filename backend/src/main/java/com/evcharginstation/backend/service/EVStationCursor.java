@@ -0,0 +1,80 @@
+package com.evcharginstation.backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor. It remembers the sort and price range the client
+ * started with and the (sort key, STATION_ID) pair of the last row it has already seen.
+ */
+public class EVStationCursor {
+    private static final String SEPARATOR = "|";
+
+    private final String property;
+    private final boolean ascending;
+    private final long lastId;
+    private final Float minPrice;
+    private final Float maxPrice;
+    private final String lastValue;
+
+    public EVStationCursor(String property, boolean ascending, long lastId, Float minPrice, Float maxPrice, String lastValue) {
+        this.property = property;
+        this.ascending = ascending;
+        this.lastId = lastId;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.lastValue = lastValue;
+    }
+
+    public static EVStationCursor decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split("\\" + SEPARATOR, 6);
+            if (parts.length != 6 || !(parts[1].equals("asc") || parts[1].equals("desc"))) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            return new EVStationCursor(parts[0], parts[1].equals("asc"), Long.parseLong(parts[2]),
+                    parsePrice(parts[3]), parsePrice(parts[4]), parts[5]);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+
+    public String encode() {
+        String raw = property + SEPARATOR + (ascending ? "asc" : "desc") + SEPARATOR + lastId + SEPARATOR
+                + formatPrice(minPrice) + SEPARATOR + formatPrice(maxPrice) + SEPARATOR + lastValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Float parsePrice(String price) {
+        return price.isEmpty() ? null : Float.valueOf(price);
+    }
+
+    private static String formatPrice(Float price) {
+        return price == null ? "" : price.toString();
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    public Float getMinPrice() {
+        return minPrice;
+    }
+
+    public Float getMaxPrice() {
+        return maxPrice;
+    }
+
+    public String getLastValue() {
+        return lastValue;
+    }
+}
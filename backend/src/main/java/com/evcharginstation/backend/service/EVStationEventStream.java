@@ -0,0 +1,372 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Server-sent stream of committed station changes. Every change gets a sequence number
+ * and is kept in a bounded ring buffer, so a client reconnecting with Last-Event-ID is
+ * sent what it missed. A client that is too far behind, or whose id is from an earlier
+ * run, gets a {@code reset} event and should reload the catalogue.
+ *
+ * <p>Subscribers are async responses, not threads. Each change is serialized once and
+ * queued for every subscriber without blocking; a small pool of sender threads drains the
+ * queues, a few events per turn. Writing to a slow client blocks only the sender thread
+ * serving it. A subscriber whose queue reaches stations.events.subscriber-backlog is
+ * dropped and can resume with Last-Event-ID. Heartbeats detect closed connections.
+ *
+ * <p>A write to a client that stopped reading blocks until the container's write timeout.
+ * A send still running after stations.events.send-timeout drops its subscriber, and the
+ * pool gets an extra thread until that send returns. Stalled clients therefore never use
+ * up the threads that serve everybody else.
+ */
+@Component
+public class EVStationEventStream implements MeterBinder {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EVStationEventStream.class);
+    static final String STATION_EVENT = "station";
+    static final String RESET_EVENT = "reset";
+    static final String IMPORTED_TYPE = "IMPORTED";
+    private static final int EVENTS_PER_TURN = 16;
+
+    private final ObjectMapper objectMapper;
+    private final String epoch = Long.toHexString(System.currentTimeMillis());
+    private final Event[] buffer;
+    private final long timeoutMillis;
+    private final int maximumSubscribers;
+    private final int subscriberBacklog;
+    private final ScheduledExecutorService heartbeats;
+    private final ThreadPoolExecutor senders;
+    private final long sendTimeoutNanos;
+    private final LongAdder dropped = new LongAdder();
+    // Includes subscribers already dropped for overflowing whose last send has not returned.
+    private final Set<Subscriber> sending = ConcurrentHashMap.newKeySet();
+    private long lastSequence;
+    private volatile List<Subscriber> subscribers = Collections.emptyList();
+
+    public EVStationEventStream(ObjectMapper objectMapper,
+                                @Value("${stations.events.buffer-size:1024}") int bufferSize,
+                                @Value("${stations.events.timeout:PT30M}") Duration timeout,
+                                @Value("${stations.events.heartbeat:PT15S}") Duration heartbeat,
+                                @Value("${stations.events.maximum-subscribers:10000}") int maximumSubscribers,
+                                @Value("${stations.events.subscriber-backlog:1024}") int subscriberBacklog,
+                                @Value("${stations.events.sender-threads:4}") int senderThreads,
+                                @Value("${stations.events.send-timeout:PT5S}") Duration sendTimeout) {
+        this.objectMapper = objectMapper;
+        this.buffer = new Event[bufferSize];
+        this.timeoutMillis = timeout.toMillis();
+        this.maximumSubscribers = maximumSubscribers;
+        this.subscriberBacklog = subscriberBacklog;
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "station-events");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.heartbeats.scheduleAtFixedRate(this::heartbeat, heartbeat.toMillis(), heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+        AtomicInteger senderNumber = new AtomicInteger();
+        // Unbounded queue: threads beyond the core size only come from expireSends.
+        this.senders = new ThreadPoolExecutor(senderThreads, Integer.MAX_VALUE, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "station-events-send-" + senderNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long checkMillis = Math.max(1, sendTimeout.toMillis() / 2);
+        this.heartbeats.scheduleAtFixedRate(this::expireSends, checkMillis, checkMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStationChanged(EVStationChangedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sequence", this.lastSequence + 1);
+        payload.put("type", event.getType());
+        payload.put("id", event.getId());
+        payload.put("station", event.getStation());
+        append(payload);
+    }
+
+    /**
+     * An imported chunk is a single event listing the new ids; clients fetch the stations
+     * they care about instead of every subscriber being sent the whole chunk.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStationsImported(EVStationsImportedEvent event) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("sequence", this.lastSequence + 1);
+        payload.put("type", IMPORTED_TYPE);
+        payload.put("ids", event.getStations().stream().map(EVStation::getId).collect(Collectors.toList()));
+        append(payload);
+    }
+
+    /**
+     * Opens a stream. With a Last-Event-ID the buffered changes after it are sent first.
+     *
+     * @throws IllegalStateException when the maximum number of subscribers is reached
+     */
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(this.timeoutMillis);
+        emitter.onCompletion(() -> unsubscribe(emitter));
+        emitter.onError(e -> unsubscribe(emitter));
+        subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    synchronized void subscribe(SseEmitter emitter, String lastEventId) {
+        if (this.subscribers.size() >= this.maximumSubscribers) {
+            throw new IllegalStateException("Too many event stream subscribers");
+        }
+        Subscriber subscriber = new Subscriber(emitter, this.subscriberBacklog);
+        List<Subscriber> subscribers = new ArrayList<>(this.subscribers);
+        subscribers.add(subscriber);
+        this.subscribers = Collections.unmodifiableList(subscribers);
+        if (lastEventId == null) {
+            return;
+        }
+        long oldest = Math.max(1, this.lastSequence - this.buffer.length + 1);
+        long resumeAfter = parseSequence(lastEventId);
+        // A replay longer than the backlog would only get the subscriber dropped.
+        if (resumeAfter < oldest - 1 || resumeAfter > this.lastSequence || this.lastSequence - resumeAfter > this.subscriberBacklog) {
+            long current = this.lastSequence;
+            enqueue(subscriber, () -> SseEmitter.event().id(eventId(current)).name(RESET_EVENT).data(current));
+            return;
+        }
+        for (long sequence = resumeAfter + 1; sequence <= this.lastSequence; sequence++) {
+            Event missed = this.buffer[(int) (sequence % this.buffer.length)];
+            enqueue(subscriber, () -> stationEvent(missed));
+        }
+    }
+
+    public int getSubscriberCount() {
+        return this.subscribers.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stations.events.subscribers", this, EVStationEventStream::getSubscriberCount)
+                .description("Open station event streams")
+                .register(registry);
+        FunctionCounter.builder("stations.events.dropped", this.dropped, LongAdder::doubleValue)
+                .description("Event stream subscribers dropped for falling behind")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.heartbeats.shutdownNow();
+        this.senders.shutdownNow();
+        this.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        if (this.subscribers.stream().anyMatch(subscriber -> subscriber.emitter == emitter)) {
+            List<Subscriber> subscribers = new ArrayList<>(this.subscribers);
+            subscribers.removeIf(subscriber -> subscriber.emitter == emitter);
+            this.subscribers = Collections.unmodifiableList(subscribers);
+        }
+    }
+
+    // Unknown, malformed or earlier-run ids resume from nowhere and so force a reset.
+    private long parseSequence(String lastEventId) {
+        int separator = lastEventId.lastIndexOf('-');
+        if (separator < 0 || !lastEventId.substring(0, separator).equals(this.epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(lastEventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void append(Map<String, Object> payload) {
+        long sequence = ++this.lastSequence;
+        Event streamed;
+        try {
+            streamed = new Event(sequence, this.objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize station event", e);
+        }
+        this.buffer[(int) (sequence % this.buffer.length)] = streamed;
+        // Queued under the lock, so nobody subscribing afterwards can receive this event
+        // both live and from the replay.
+        this.subscribers.forEach(subscriber -> enqueue(subscriber, () -> stationEvent(streamed)));
+    }
+
+    private String eventId(long sequence) {
+        return this.epoch + "-" + sequence;
+    }
+
+    private SseEmitter.SseEventBuilder stationEvent(Event event) {
+        return SseEmitter.event()
+                .id(eventId(event.sequence))
+                .name(STATION_EVENT)
+                .data(event.data, MediaType.APPLICATION_JSON);
+    }
+
+    private void heartbeat() {
+        this.subscribers.forEach(subscriber -> enqueue(subscriber, () -> SseEmitter.event().comment("heartbeat")));
+    }
+
+    // Never blocks: a full queue means the subscriber fell behind and is dropped.
+    private void enqueue(Subscriber subscriber, Supplier<SseEmitter.SseEventBuilder> event) {
+        if (subscriber.closed) {
+            return;
+        }
+        if (!subscriber.queue.offer(event)) {
+            LOGGER.debug("Dropping station event subscriber that fell {} events behind", this.subscriberBacklog);
+            this.dropped.increment();
+            close(subscriber);
+        }
+        schedule(subscriber);
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                this.senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    // Sends a few events and then yields the sender thread, so busy subscribers take turns.
+    private void drain(Subscriber subscriber) {
+        try {
+            for (int i = 0; i < EVENTS_PER_TURN && !subscriber.closed; i++) {
+                Supplier<SseEmitter.SseEventBuilder> event = subscriber.queue.poll();
+                if (event == null) {
+                    break;
+                }
+                send(subscriber, event.get());
+            }
+            if (subscriber.closed) {
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            LOGGER.debug("Dropping station event subscriber", e);
+            close(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        if (!subscriber.closed && !subscriber.queue.isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) throws IOException {
+        Send send = new Send(System.nanoTime());
+        subscriber.sending.set(send);
+        this.sending.add(subscriber);
+        try {
+            subscriber.emitter.send(event);
+        } finally {
+            this.sending.remove(subscriber);
+            if (!subscriber.sending.compareAndSet(send, null)) {
+                // expireSends gave the pool a thread in place of this one.
+                resizeSenders(-1);
+            }
+        }
+    }
+
+    private void expireSends() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : this.sending) {
+            Send send = subscriber.sending.get();
+            if (send != null && send != Send.EXPIRED && now - send.startedNanos > this.sendTimeoutNanos
+                    && subscriber.sending.compareAndSet(send, Send.EXPIRED)) {
+                LOGGER.debug("Dropping station event subscriber whose send has been blocked for {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(now - send.startedNanos));
+                if (!subscriber.closed) {
+                    this.dropped.increment();
+                    close(subscriber);
+                }
+                resizeSenders(1);
+            }
+        }
+    }
+
+    private void resizeSenders(int delta) {
+        synchronized (this.senders) {
+            this.senders.setCorePoolSize(this.senders.getCorePoolSize() + delta);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscriber.queue.clear();
+        unsubscribe(subscriber.emitter);
+    }
+
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<Supplier<SseEmitter.SseEventBuilder>> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicReference<Send> sending = new AtomicReference<>();
+        private volatile boolean closed;
+
+        private Subscriber(SseEmitter emitter, int backlog) {
+            this.emitter = emitter;
+            this.queue = new LinkedBlockingQueue<>(backlog);
+        }
+    }
+
+    private static final class Send {
+        private static final Send EXPIRED = new Send(0);
+
+        private final long startedNanos;
+
+        private Send(long startedNanos) {
+            this.startedNanos = startedNanos;
+        }
+    }
+
+    private static final class Event {
+        private final long sequence;
+        private final String data;
+
+        private Event(long sequence, String data) {
+            this.sequence = sequence;
+            this.data = data;
+        }
+    }
+}
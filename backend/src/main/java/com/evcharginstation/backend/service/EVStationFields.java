@@ -0,0 +1,96 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * A validated sparse field set, e.g. {@code fields=name,price}. The id is always part of it
+ * so a client can fetch the full station later. Fields are kept in entity order, so the
+ * same set always gives the same columns and the same cache key.
+ */
+public class EVStationFields {
+    private static final List<String> ATTRIBUTES = Arrays.asList("id", "name", "image", "price", "address", "latitude", "longitude");
+
+    private final List<String> names;
+
+    private EVStationFields(List<String> names) {
+        this.names = names;
+    }
+
+    public static EVStationFields parse(String fields) {
+        Set<String> requested = new TreeSet<>();
+        requested.add("id");
+        for (String field : fields.split(",")) {
+            String name = field.trim().toLowerCase(Locale.ROOT);
+            if (!ATTRIBUTES.contains(name)) {
+                throw new IllegalArgumentException("Unknown field " + field.trim());
+            }
+            requested.add(name);
+        }
+        List<String> names = new ArrayList<>(requested.size());
+        ATTRIBUTES.stream().filter(requested::contains).forEach(names::add);
+        return new EVStationFields(names);
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    /**
+     * The fields plus the given attribute, for queries that need a column the client
+     * did not ask for, such as the keyset sort value.
+     */
+    List<String> with(String attribute) {
+        if (names.contains(attribute)) {
+            return names;
+        }
+        List<String> extended = new ArrayList<>(names);
+        extended.add(attribute);
+        return extended;
+    }
+
+    public String key() {
+        return String.join(",", names);
+    }
+
+    public List<Map<String, Object>> project(List<EVStation> stations) {
+        List<Map<String, Object>> rows = new ArrayList<>(stations.size());
+        stations.forEach(station -> rows.add(project(station)));
+        return rows;
+    }
+
+    public Map<String, Object> project(EVStation station) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : names) {
+            row.put(name, value(station, name));
+        }
+        return row;
+    }
+
+    private static Object value(EVStation station, String name) {
+        switch (name) {
+            case "id":
+                return station.getId();
+            case "name":
+                return station.getName();
+            case "image":
+                return station.getImage();
+            case "price":
+                return station.getPrice();
+            case "address":
+                return station.getAddress();
+            case "latitude":
+                return station.getLatitude();
+            default:
+                return station.getLongitude();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.service.image.ImageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces down-scaled copies of station images in the image store
+ * ({@code <hash>_thumb.jpeg}, {@code <hash>_medium.jpeg}). Work runs on a small dedicated
+ * pool with a bounded queue; when the queue is full the request is dropped and the
+ * variant is generated again the next time somebody asks for it.
+ *
+ * <p>Dimensions are read from the image header before decoding. Originals above
+ * stations.images.variants.max-pixels get no variants, and larger originals are decoded
+ * with subsampling, so a single upload cannot claim a full-resolution raster.
+ */
+@Component
+public class EVStationImageVariants {
+    private static final Logger LOGGER = LoggerFactory.getLogger(EVStationImageVariants.class);
+
+    public enum Size {
+        THUMB(160),
+        MEDIUM(640);
+
+        private final int maximumDimension;
+
+        Size(int maximumDimension) {
+            this.maximumDimension = maximumDimension;
+        }
+
+        public String suffix() {
+            return "_" + name().toLowerCase();
+        }
+
+        public static Optional<Size> parse(String size) {
+            if (size == null || size.equalsIgnoreCase("original")) {
+                return Optional.empty();
+            }
+            return Optional.of(Arrays.stream(values())
+                    .filter(candidate -> candidate.name().equalsIgnoreCase(size))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown image size " + size)));
+        }
+    }
+
+    private final ImageStore imageStore;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final long maximumPixels;
+
+    public EVStationImageVariants(ImageStore imageStore,
+                                  @Value("${stations.images.variants.threads:2}") int threads,
+                                  @Value("${stations.images.variants.queue-capacity:256}") int queueCapacity,
+                                  @Value("${stations.images.variants.max-pixels:50000000}") long maximumPixels) {
+        this.imageStore = imageStore;
+        this.maximumPixels = maximumPixels;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "image-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    public static String originalKey(String imageName) {
+        return imageName + ".jpeg";
+    }
+
+    public static String variantKey(String imageName, Size size) {
+        return imageName + size.suffix() + ".jpeg";
+    }
+
+    public void schedule(String imageName) {
+        if (!this.pending.add(imageName)) {
+            return;
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    createVariants(imageName);
+                } finally {
+                    this.pending.remove(imageName);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.pending.remove(imageName);
+            LOGGER.debug("Image variant queue full, skipping {}", imageName);
+        }
+    }
+
+    void createVariants(String imageName) {
+        try {
+            Optional<Resource> original = this.imageStore.open(originalKey(imageName));
+            if (original.isEmpty()) {
+                return;
+            }
+            BufferedImage source;
+            int longestSide;
+            try (InputStream content = original.get().getInputStream();
+                 ImageInputStream input = ImageIO.createImageInputStream(content)) {
+                Iterator<ImageReader> readers = input == null ? Collections.emptyIterator() : ImageIO.getImageReaders(input);
+                if (!readers.hasNext()) {
+                    return;
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(input, true, true);
+                    int width = reader.getWidth(0);
+                    int height = reader.getHeight(0);
+                    if ((long) width * height > this.maximumPixels) {
+                        LOGGER.warn("Not creating variants for {}: {}x{} exceeds {} pixels", imageName, width, height, this.maximumPixels);
+                        return;
+                    }
+                    longestSide = Math.max(width, height);
+                    // Decoding at no less than twice the largest variant keeps the scaled output sharp.
+                    int subsampling = Math.max(1, longestSide / (2 * Size.MEDIUM.maximumDimension));
+                    ImageReadParam param = reader.getDefaultReadParam();
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                    source = reader.read(0, param);
+                } finally {
+                    reader.dispose();
+                }
+            }
+            for (Size size : Size.values()) {
+                String target = variantKey(imageName, size);
+                if (this.imageStore.exists(target)) {
+                    continue;
+                }
+                // Originals that are already small enough are shared instead of re-encoded.
+                if (longestSide <= size.maximumDimension) {
+                    this.imageStore.copy(originalKey(imageName), target);
+                } else {
+                    store(scale(source, (double) size.maximumDimension / Math.max(source.getWidth(), source.getHeight())), target);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not create variants for {}", imageName, e);
+        }
+    }
+
+    public void delete(String imageName) throws IOException {
+        for (Size size : Size.values()) {
+            this.imageStore.delete(variantKey(imageName, size));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        this.executor.shutdownNow();
+    }
+
+    private static BufferedImage scale(BufferedImage source, double ratio) {
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void store(BufferedImage image, String target) throws IOException {
+        Path stagingFile = this.imageStore.createStagingFile();
+        try {
+            ImageIO.write(image, "jpeg", stagingFile.toFile());
+            this.imageStore.put(target, stagingFile);
+        } finally {
+            Files.deleteIfExists(stagingFile);
+        }
+    }
+}
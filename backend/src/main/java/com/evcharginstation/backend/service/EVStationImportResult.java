@@ -0,0 +1,85 @@
+package com.evcharginstation.backend.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+public class EVStationImportResult {
+    public enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        private final long line;
+        private final Status status;
+        private final Long id;
+        private final String error;
+
+        public Row(long line, Status status, Long id, String error) {
+            this.line = line;
+            this.status = status;
+            this.id = id;
+            this.error = error;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private long created;
+    private long rejected;
+    private long failed;
+
+    void add(Row row) {
+        this.rows.add(row);
+        switch (row.getStatus()) {
+            case CREATED:
+                this.created++;
+                break;
+            case REJECTED:
+                this.rejected++;
+                break;
+            default:
+                this.failed++;
+        }
+    }
+
+    void sortRows() {
+        this.rows.sort(Comparator.comparingLong(Row::getLine));
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public List<Row> getRows() {
+        return rows;
+    }
+}
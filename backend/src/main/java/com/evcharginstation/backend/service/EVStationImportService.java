@@ -0,0 +1,280 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.entity.Site;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StreamUtils;
+import org.springframework.util.unit.DataSize;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Bulk station import. Rows are read and validated one line at a time and written in
+ * chunked transactions, so neither the request body nor the persistence context grows
+ * with the size of the import. Inserts are batched by Hibernate (hibernate.jdbc.batch_size).
+ */
+@Service
+public class EVStationImportService {
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    private static final int MAX_TEXT_LENGTH = 64;
+    private static final List<String> COLUMNS = Arrays.asList("name", "price", "address", "image", "latitude", "longitude");
+
+    private final EVStationService evStationService;
+    private final EVStationSites evStationSites;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final long maximumImageBytes;
+
+    public EVStationImportService(EVStationService evStationService, EVStationSites evStationSites, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                  ObjectMapper objectMapper,
+                                  @Value("${stations.import.chunk-size:1000}") int chunkSize,
+                                  @Value("${spring.servlet.multipart.max-file-size:5MB}") DataSize maximumImageSize) {
+        this.evStationService = evStationService;
+        this.evStationSites = evStationSites;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maximumImageBytes = maximumImageSize.toBytes();
+    }
+
+    public EVStationImportResult importStations(InputStream input, Format format) throws IOException {
+        EVStationImportResult result = new EVStationImportResult();
+        List<PendingRow> chunk = new ArrayList<>(this.chunkSize);
+        Set<String> knownImages = new HashSet<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String[] header = null;
+            long lineNumber = 0;
+            for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == Format.CSV && header == null) {
+                    header = parseCsvLine(line);
+                    for (int i = 0; i < header.length; i++) {
+                        header[i] = header[i].trim().toLowerCase(Locale.ROOT);
+                    }
+                    continue;
+                }
+                try {
+                    Map<String, String> fields = format == Format.CSV ? csvFields(header, line) : jsonFields(line);
+                    chunk.add(new PendingRow(lineNumber, toStation(fields, knownImages)));
+                } catch (IllegalArgumentException e) {
+                    result.add(new EVStationImportResult.Row(lineNumber, EVStationImportResult.Status.REJECTED, null, e.getMessage()));
+                }
+                if (chunk.size() == this.chunkSize) {
+                    persist(chunk, result);
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            persist(chunk, result);
+        }
+        result.sortRows();
+        return result;
+    }
+
+    /**
+     * Stores every file of a zip archive in the image store and returns the image path
+     * for each entry name, to be referenced from the image column of an import.
+     */
+    public Map<String, String> importImages(InputStream archive) throws IOException {
+        Map<String, String> images = new LinkedHashMap<>();
+        try (ZipInputStream zip = new ZipInputStream(archive)) {
+            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                if (!entry.isDirectory()) {
+                    String imageName = this.evStationService.storeImage(StreamUtils.nonClosing(zip), this.maximumImageBytes);
+                    images.put(entry.getName(), EVStationService.IMAGE_PATH + imageName);
+                }
+            }
+        }
+        return images;
+    }
+
+    private void persist(List<PendingRow> chunk, EVStationImportResult result) {
+        try {
+            this.transactionTemplate.executeWithoutResult(status -> {
+                Function<String, Long> siteIds = this.evStationSites.batch();
+                List<EVStation> stations = new ArrayList<>(chunk.size());
+                for (PendingRow row : chunk) {
+                    Long siteId = siteIds.apply(row.station.getName());
+                    row.station.setSite(siteId == null ? null : this.entityManager.getReference(Site.class, siteId));
+                    this.entityManager.persist(row.station);
+                    stations.add(row.station);
+                }
+                this.eventPublisher.publishEvent(new EVStationsImportedEvent(stations));
+                this.entityManager.flush();
+                this.entityManager.clear();
+            });
+            chunk.forEach(row -> result.add(new EVStationImportResult.Row(row.line, EVStationImportResult.Status.CREATED, row.station.getId(), null)));
+        } catch (RuntimeException e) {
+            String error = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            chunk.forEach(row -> result.add(new EVStationImportResult.Row(row.line, EVStationImportResult.Status.FAILED, null, error)));
+        }
+    }
+
+    private EVStation toStation(Map<String, String> fields, Set<String> knownImages) {
+        EVStation station = new EVStation();
+        station.setName(requireText(fields, "name"));
+        station.setAddress(fields.get("address") == null || fields.get("address").isBlank() ? null : checkLength("address", fields.get("address").trim()));
+        String price = requireText(fields, "price");
+        try {
+            station.setPrice(Float.parseFloat(price));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("price is not a number");
+        }
+        if (!Float.isFinite(station.getPrice()) || station.getPrice() < 0) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        String image = requireText(fields, "image");
+        String imageName = image.startsWith(EVStationService.IMAGE_PATH) ? image.substring(EVStationService.IMAGE_PATH.length()) : image;
+        if (!knownImages.contains(imageName)) {
+            if (!this.evStationService.imageExists(imageName)) {
+                throw new IllegalArgumentException("image " + image + " does not exist");
+            }
+            knownImages.add(imageName);
+        }
+        station.setImage(EVStationService.IMAGE_PATH + imageName);
+        station.setLatitude(parseCoordinate(fields, "latitude"));
+        station.setLongitude(parseCoordinate(fields, "longitude"));
+        EVStationService.validateLocation(station.getLatitude(), station.getLongitude());
+        return station;
+    }
+
+    private static String requireText(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException(column + " is required");
+        }
+        return checkLength(column, value.trim());
+    }
+
+    private static String checkLength(String column, String value) {
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static Double parseCoordinate(Map<String, String> fields, String column) {
+        String value = fields.get(column);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(column + " is not a number");
+        }
+    }
+
+    private Map<String, String> jsonFields(String line) {
+        JsonNode node;
+        try {
+            node = this.objectMapper.readTree(line);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON");
+        }
+        if (!node.isObject()) {
+            throw new IllegalArgumentException("expected a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (String column : COLUMNS) {
+            JsonNode value = node.get(column);
+            if (value != null && !value.isNull()) {
+                fields.put(column, value.asText());
+            }
+        }
+        return fields;
+    }
+
+    private static Map<String, String> csvFields(String[] header, String line) {
+        String[] values = parseCsvLine(line);
+        if (values.length != header.length) {
+            throw new IllegalArgumentException("expected " + header.length + " columns but found " + values.length);
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            fields.put(header[i], values[i]);
+        }
+        return fields;
+    }
+
+    static String[] parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("unterminated quoted value");
+        }
+        values.add(value.toString());
+        return values.toArray(new String[0]);
+    }
+
+    private static final class PendingRow {
+        private final long line;
+        private final EVStation station;
+
+        private PendingRow(long line, EVStation station) {
+            this.line = line;
+            this.station = station;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.evcharginstation.backend.service;
+
+import java.util.List;
+import java.util.Optional;
+
+public class EVStationPage<T> {
+    private final List<T> stations;
+    private final String nextCursor;
+
+    public EVStationPage(List<T> stations, String nextCursor) {
+        this.stations = stations;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getStations() {
+        return stations;
+    }
+
+    public Optional<String> getNextCursor() {
+        return Optional.ofNullable(nextCursor);
+    }
+}
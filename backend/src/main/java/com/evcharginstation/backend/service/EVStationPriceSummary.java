@@ -0,0 +1,63 @@
+package com.evcharginstation.backend.service;
+
+import java.util.List;
+
+public class EVStationPriceSummary {
+    private final long count;
+    private final Float minimum;
+    private final Float maximum;
+    private final Double average;
+    private final List<Bucket> buckets;
+
+    public EVStationPriceSummary(long count, Float minimum, Float maximum, Double average, List<Bucket> buckets) {
+        this.count = count;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.average = average;
+        this.buckets = buckets;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public Float getMinimum() {
+        return minimum;
+    }
+
+    public Float getMaximum() {
+        return maximum;
+    }
+
+    public Double getAverage() {
+        return average;
+    }
+
+    public List<Bucket> getBuckets() {
+        return buckets;
+    }
+
+    public static class Bucket {
+        private final float from;
+        private final float to;
+        private final long count;
+
+        public Bucket(float from, float to, long count) {
+            this.from = from;
+            this.to = to;
+            this.count = count;
+        }
+
+        public float getFrom() {
+            return from;
+        }
+
+        public float getTo() {
+            return to;
+        }
+
+        public long getCount() {
+            return count;
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationText;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Inverted index over the tokens of station names and addresses. Every query token is
+ * matched as a prefix, so partial input works for typeahead. The token with the fewest
+ * postings drives the search and the other tokens are checked against each candidate's
+ * own tokens. Candidates are collected best match first (exact name token, name prefix,
+ * exact address token, address prefix) and collection stops after a fixed number of
+ * candidates and prefix expansions, which keeps one-letter queries as cheap as precise ones.
+ */
+@Component
+public class EVStationSearchIndex {
+    static final int MAX_CANDIDATES = 2_000;
+    static final int MAX_EXPANSIONS = 64;
+    private static final double NAME_WEIGHT = 2;
+    private static final double ADDRESS_WEIGHT = 1;
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final EVStationRepository evStationRepository;
+    private final NavigableMap<String, Postings> nameTerms = new TreeMap<>();
+    private final NavigableMap<String, Postings> addressTerms = new TreeMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public EVStationSearchIndex(EVStationRepository evStationRepository) {
+        this.evStationRepository = evStationRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        this.loading = true;
+        for (EVStationText text : this.evStationRepository.findAllText()) {
+            this.lock.writeLock().lock();
+            try {
+                if (!this.changedWhileLoading.contains(text.getId())) {
+                    put(text.getId(), text.getName(), text.getAddress());
+                }
+            } finally {
+                this.lock.writeLock().unlock();
+            }
+        }
+        this.loading = false;
+        this.changedWhileLoading.clear();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationChanged(EVStationChangedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            if (this.loading) {
+                this.changedWhileLoading.add(event.getId());
+            }
+            EVStation station = event.getStation();
+            if (event.getType() == EVStationChangedEvent.Type.DELETED || station == null) {
+                remove(event.getId());
+            } else {
+                put(event.getId(), station.getName(), station.getAddress());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStationsImported(EVStationsImportedEvent event) {
+        this.lock.writeLock().lock();
+        try {
+            for (EVStation station : event.getStations()) {
+                if (this.loading) {
+                    this.changedWhileLoading.add(station.getId());
+                }
+                put(station.getId(), station.getName(), station.getAddress());
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        this.lock.readLock().lock();
+        try {
+            return this.documents.size();
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns the ids on the requested page, best match first, together with the number of
+     * matches found. The count stops growing once MAX_CANDIDATES have been looked at.
+     */
+    public Hits search(String query, int page, int size) {
+        String[] tokens = tokenize(query);
+        if (tokens.length == 0) {
+            return new Hits(List.of(), 0);
+        }
+        this.lock.readLock().lock();
+        try {
+            List<List<Postings>> groups = null;
+            long cheapest = Long.MAX_VALUE;
+            for (String token : tokens) {
+                List<List<Postings>> tokenGroups = candidateGroups(token);
+                long cost = tokenGroups.stream().flatMap(List::stream).mapToLong(postings -> postings.size).sum();
+                if (cost < cheapest) {
+                    cheapest = cost;
+                    groups = tokenGroups;
+                }
+            }
+            int wanted = (page + 1) * size;
+            PriorityQueue<Hit> best = new PriorityQueue<>(Comparator.comparingDouble((Hit hit) -> hit.score)
+                    .thenComparing(Comparator.comparingLong((Hit hit) -> hit.id).reversed()));
+            Set<Long> seen = new HashSet<>();
+            int total = 0;
+            collect:
+            for (List<Postings> group : groups) {
+                for (Postings postings : group) {
+                    for (int i = 0; i < postings.size; i++) {
+                        long id = postings.ids[i];
+                        if (!seen.add(id)) {
+                            continue;
+                        }
+                        double score = score(this.documents.get(id), tokens);
+                        if (score > 0) {
+                            total++;
+                            best.add(new Hit(id, score));
+                            if (best.size() > wanted) {
+                                best.poll();
+                            }
+                        }
+                        if (seen.size() == MAX_CANDIDATES) {
+                            break collect;
+                        }
+                    }
+                }
+            }
+            List<Hit> ordered = new ArrayList<>(best);
+            ordered.sort(best.comparator().reversed());
+            List<Long> ids = new ArrayList<>();
+            for (int i = page * size; i < ordered.size(); i++) {
+                ids.add(ordered.get(i).id);
+            }
+            return new Hits(ids, total);
+        } finally {
+            this.lock.readLock().unlock();
+        }
+    }
+
+    static String[] tokenize(String text) {
+        if (text == null) {
+            return new String[0];
+        }
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        Set<String> tokens = new LinkedHashSet<>();
+        for (String token : SEPARATORS.split(normalized)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    private List<List<Postings>> candidateGroups(String token) {
+        List<List<Postings>> groups = new ArrayList<>(4);
+        for (NavigableMap<String, Postings> terms : List.of(this.nameTerms, this.addressTerms)) {
+            List<Postings> exact = new ArrayList<>(1);
+            List<Postings> prefixed = new ArrayList<>();
+            for (Map.Entry<String, Postings> term : prefixRange(terms, token).entrySet()) {
+                if (term.getKey().length() == token.length()) {
+                    exact.add(term.getValue());
+                } else if (prefixed.size() < MAX_EXPANSIONS) {
+                    prefixed.add(term.getValue());
+                } else {
+                    break;
+                }
+            }
+            groups.add(exact);
+            groups.add(prefixed);
+        }
+        return groups;
+    }
+
+    private double score(Document document, String[] tokens) {
+        double score = 0;
+        for (String token : tokens) {
+            double best = Math.max(match(document.name, token, NAME_WEIGHT), match(document.address, token, ADDRESS_WEIGHT));
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private double match(Field field, String token, double weight) {
+        int index = Arrays.binarySearch(field.tokens, token);
+        if (index >= 0) {
+            return weight * idf(field.postings[index]);
+        }
+        index = -index - 1;
+        if (index < field.tokens.length && field.tokens[index].startsWith(token)) {
+            return weight * PREFIX_WEIGHT * idf(field.postings[index]);
+        }
+        return 0;
+    }
+
+    private double idf(Postings postings) {
+        return Math.log(1 + (double) this.documents.size() / postings.size);
+    }
+
+    private static NavigableMap<String, Postings> prefixRange(NavigableMap<String, Postings> terms, String prefix) {
+        return terms.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void put(long id, String name, String address) {
+        remove(id);
+        this.documents.put(id, new Document(index(id, name, this.nameTerms), index(id, address, this.addressTerms)));
+    }
+
+    private static Field index(long id, String text, NavigableMap<String, Postings> terms) {
+        String[] tokens = tokenize(text);
+        Arrays.sort(tokens);
+        Postings[] postings = new Postings[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            Map.Entry<String, Postings> existing = terms.ceilingEntry(tokens[i]);
+            if (existing != null && existing.getKey().equals(tokens[i])) {
+                tokens[i] = existing.getKey();
+                postings[i] = existing.getValue();
+            } else {
+                postings[i] = new Postings();
+                terms.put(tokens[i], postings[i]);
+            }
+            postings[i].add(id);
+        }
+        return new Field(tokens, postings);
+    }
+
+    private void remove(long id) {
+        Document document = this.documents.remove(id);
+        if (document != null) {
+            unindex(id, document.name, this.nameTerms);
+            unindex(id, document.address, this.addressTerms);
+        }
+    }
+
+    private static void unindex(long id, Field field, NavigableMap<String, Postings> terms) {
+        for (int i = 0; i < field.tokens.length; i++) {
+            if (field.postings[i].remove(id) && field.postings[i].size == 0) {
+                terms.remove(field.tokens[i]);
+            }
+        }
+    }
+
+    public static final class Hits {
+        private final List<Long> ids;
+        private final int total;
+
+        Hits(List<Long> ids, int total) {
+            this.ids = ids;
+            this.total = total;
+        }
+
+        public List<Long> getIds() {
+            return ids;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+    }
+
+    private static final class Document {
+        private final Field name;
+        private final Field address;
+
+        private Document(Field name, Field address) {
+            this.name = name;
+            this.address = address;
+        }
+    }
+
+    /**
+     * Sorted tokens of one field, each with the postings of its term.
+     */
+    private static final class Field {
+        private final String[] tokens;
+        private final Postings[] postings;
+
+        private Field(String[] tokens, Postings[] postings) {
+            this.tokens = tokens;
+            this.postings = postings;
+        }
+    }
+
+    /**
+     * Station ids containing a term, kept sorted. New stations get the highest id so they
+     * are appended; removal shifts the tail.
+     */
+    private static final class Postings {
+        private long[] ids = new long[2];
+        private int size;
+
+        private void add(long id) {
+            int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index >= 0) {
+                return;
+            }
+            index = -index - 1;
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+            System.arraycopy(this.ids, index, this.ids, index + 1, this.size - index);
+            this.ids[index] = id;
+            this.size++;
+        }
+
+        private boolean remove(long id) {
+            int index = Arrays.binarySearch(this.ids, 0, this.size, id);
+            if (index < 0) {
+                return false;
+            }
+            System.arraycopy(this.ids, index + 1, this.ids, index, this.size - index - 1);
+            this.size--;
+            return true;
+        }
+    }
+
+    private static final class Hit {
+        private final long id;
+        private final double score;
+
+        private Hit(long id, double score) {
+            this.id = id;
+            this.score = score;
+        }
+    }
+}
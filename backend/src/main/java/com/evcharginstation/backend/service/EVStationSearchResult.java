@@ -0,0 +1,23 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+
+import java.util.List;
+
+public class EVStationSearchResult {
+    private final List<EVStation> stations;
+    private final int total;
+
+    public EVStationSearchResult(List<EVStation> stations, int total) {
+        this.stations = stations;
+        this.total = total;
+    }
+
+    public List<EVStation> getStations() {
+        return stations;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+}
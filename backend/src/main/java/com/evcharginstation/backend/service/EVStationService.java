@@ -1,121 +1,495 @@
 package com.evcharginstation.backend.service;
 
+import com.evcharginstation.backend.metrics.StationMetrics;
 import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.entity.Site;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceBucket;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceStatistics;
 import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
-import org.springframework.core.io.ByteArrayResource;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.image.ImageStore;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.transaction.Transactional;
+import javax.persistence.EntityManager;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.net.URI;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class EVStationService {
     private final EVStationRepository evStationRepository;
-    private final String UPLOAD_DIRECTORY = System.getProperty("user.dir") + "/src/main/resources/static/images/";
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EVStationCache evStationCache;
+    private final EVStationSpatialIndex evStationSpatialIndex;
+    private final EVStationImageVariants evStationImageVariants;
+    private final ImageStore imageStore;
+    private final EVStationSearchIndex evStationSearchIndex;
+    private final StationMetrics stationMetrics;
+    private final EVStationWriteBehind evStationWriteBehind;
+    private final EVStationSites evStationSites;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final String IMAGE_PATH = "/api/stations/images/";
+    private static final Pattern IMAGE_NAME = Pattern.compile("[0-9a-f]{32}");
+    public static final double MAX_NEARBY_RADIUS_METERS = 100_000;
+    public static final int MAX_NEARBY_RESULTS = 100;
+    public static final int MAX_SEARCH_RESULTS = 100;
+    public static final int MAX_PRICE_BUCKETS = 100;
 
-    public EVStationService(EVStationRepository evStationRepository) {
+    public EVStationService(EVStationRepository evStationRepository, EntityManager entityManager, ApplicationEventPublisher eventPublisher,
+                            EVStationCache evStationCache, EVStationSpatialIndex evStationSpatialIndex,
+                            EVStationImageVariants evStationImageVariants, ImageStore imageStore, EVStationSearchIndex evStationSearchIndex,
+                            StationMetrics stationMetrics, EVStationWriteBehind evStationWriteBehind, EVStationSites evStationSites) {
         this.evStationRepository = evStationRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+        this.evStationCache = evStationCache;
+        this.evStationSpatialIndex = evStationSpatialIndex;
+        this.evStationImageVariants = evStationImageVariants;
+        this.imageStore = imageStore;
+        this.evStationSearchIndex = evStationSearchIndex;
+        this.stationMetrics = stationMetrics;
+        this.evStationWriteBehind = evStationWriteBehind;
+        this.evStationSites = evStationSites;
     }
 
+    @Transactional(readOnly = true)
     public List<EVStation> getEVStations() {
-        return new ArrayList<>(this.evStationRepository.findAll());
+        return this.evStationCache.getView("all", () -> new ArrayList<>(this.evStationRepository.findAll()));
     }
 
+    @Transactional(readOnly = true)
+    public void exportEVStations(Consumer<EVStation> sink) {
+        try (Stream<EVStation> stations = this.evStationRepository.streamAllByOrderById()) {
+            stations.forEach(station -> {
+                sink.accept(station);
+                this.entityManager.detach(station);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public Optional<EVStation> getEVStation(Long id) {
-        return this.evStationRepository.findById(id);
+        Optional<EVStation> pending = this.evStationWriteBehind.pending(id);
+        if (pending.isPresent()) {
+            return pending;
+        }
+        return this.evStationCache.getStation(id, this.evStationRepository::findById);
     }
 
-    public EVStation addEVStation(MultipartFile image, String name, float price, String address) {
-        try {
-            String imageName = uploadImage(image);
-            return this.updateOrSave(null, name, price, address, imageName);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not add new station");
+    @Transactional(readOnly = true)
+    public List<EVStation> getNearbyEVStations(double latitude, double longitude, double radiusMeters, int k) {
+        validateLocation(latitude, longitude);
+        if (radiusMeters <= 0 || radiusMeters > MAX_NEARBY_RADIUS_METERS || k < 1 || k > MAX_NEARBY_RESULTS) {
+            throw new IllegalArgumentException("Radius or result count out of range");
         }
+        List<Long> ids = this.evStationSpatialIndex.nearest(latitude, longitude, radiusMeters, k);
+        return this.evStationCache.getStations(ids, this.evStationRepository::findAllById);
     }
 
-    public ByteArrayResource getImage(String image) throws IOException {
-        Path requestedImagePath = Paths.get(UPLOAD_DIRECTORY+image+".jpeg");
-        if (Files.exists(requestedImagePath)) {
-            return new ByteArrayResource(Files.readAllBytes(requestedImagePath));
+    @Transactional(readOnly = true)
+    public EVStationSearchResult searchEVStations(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new IllegalArgumentException("Search query is required");
         }
-        throw new RuntimeException("Image does not exists");
+        if (page < 0 || size < 1 || size > MAX_SEARCH_RESULTS || (page + 1) * size > EVStationSearchIndex.MAX_CANDIDATES) {
+            throw new IllegalArgumentException("Page or page size out of range");
+        }
+        EVStationSearchIndex.Hits hits = this.evStationSearchIndex.search(query, page, size);
+        return new EVStationSearchResult(this.evStationCache.getStations(hits.getIds(), this.evStationRepository::findAllById), hits.getTotal());
     }
 
-    public EVStation updateEVStation(Long id, String name, float price, String address, MultipartFile image) {
+    public EVStation addEVStation(MultipartFile image, String name, float price, String address, Double latitude, Double longitude) {
+        validateLocation(latitude, longitude);
         try {
             String imageName = uploadImage(image);
-            return this.updateOrSave(id, name, price, address, imageName);
+            afterCommit(() -> this.evStationImageVariants.schedule(imageName));
+            return this.updateOrSave(null, name, price, address, imageName, latitude, longitude);
         } catch (Exception e) {
             throw new RuntimeException("Could not add new station");
         }
     }
 
-    public EVStation updateEVStation(Long id, String name, float price, String address) {
+    public Resource getImage(String image) throws IOException {
+        return getImage(image, null);
+    }
+
+    /**
+     * Serves the requested variant, or the original while that variant is still being generated.
+     * The file name of the returned resource tells which one was picked.
+     */
+    public Resource getImage(String image, String size) throws IOException {
+        Resource resource = this.imageStore.open(resolveImage(image, size))
+                .orElseThrow(() -> new RuntimeException("Image does not exists"));
+        this.stationMetrics.imageRead(resource.contentLength());
+        return resource;
+    }
+
+    /**
+     * Where to send the client for the image, when the image store serves images itself.
+     */
+    public Optional<URI> getImageRedirect(String image, String size) throws IOException {
+        if (!this.imageStore.redirects()) {
+            return Optional.empty();
+        }
+        return this.imageStore.redirect(resolveImage(image, size));
+    }
+
+    private String resolveImage(String image, String size) throws IOException {
+        Optional<EVStationImageVariants.Size> variant = EVStationImageVariants.Size.parse(size);
+        if (!IMAGE_NAME.matcher(image).matches()) {
+            throw new RuntimeException("Image does not exists");
+        }
+        if (variant.isPresent()) {
+            String variantKey = EVStationImageVariants.variantKey(image, variant.get());
+            if (this.imageStore.exists(variantKey)) {
+                return variantKey;
+            }
+        }
+        String originalKey = EVStationImageVariants.originalKey(image);
+        if (!this.imageStore.exists(originalKey)) {
+            throw new RuntimeException("Image does not exists");
+        }
+        if (variant.isPresent()) {
+            this.evStationImageVariants.schedule(image);
+        }
+        return originalKey;
+    }
+
+    public EVStation updateEVStation(Long id, String name, float price, String address, Double latitude, Double longitude,
+                                     MultipartFile image, Long expectedVersion) {
+        String imageName;
         try {
-            String imageName = this.evStationRepository.findById(id).map(EVStation::getImage).orElse("");
-            return this.updateOrSave(id, name, price, address, imageName);
-        } catch (Exception e) {
-            throw new RuntimeException("Could not add new station");
+            imageName = uploadImage(image);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store station image", e);
+        }
+        afterCommit(() -> this.evStationImageVariants.schedule(imageName));
+        return patchEVStation(id, expectedVersion, name, price, address, IMAGE_PATH + imageName, latitude, longitude);
+    }
+
+    public EVStation updateEVStation(Long id, String name, float price, String address, Double latitude, Double longitude,
+                                     Long expectedVersion) {
+        return patchEVStation(id, expectedVersion, name, price, address, null, latitude, longitude);
+    }
+
+    /**
+     * Applies every non-null value with a single conditional UPDATE that also returns the
+     * new row. A given expected version must still be current, otherwise nothing is written
+     * and an OptimisticLockingFailureException is thrown. Coordinates that are not given
+     * keep their current values. In write-behind mode the edit is queued instead.
+     */
+    public EVStation patchEVStation(Long id, Long expectedVersion, String name, Float price, String address, String image,
+                                    Double latitude, Double longitude) {
+        if (latitude != null || longitude != null) {
+            validateLocation(latitude, longitude);
+        }
+        if (price != null && (!Float.isFinite(price) || price < 0)) {
+            throw new IllegalArgumentException("price must be a non-negative number");
+        }
+        if (this.evStationWriteBehind.isEnabled()) {
+            return this.evStationWriteBehind.update(id, expectedVersion, this.evStationRepository::findById, station -> {
+                Optional.ofNullable(name).ifPresent(station::setName);
+                Optional.ofNullable(price).ifPresent(station::setPrice);
+                Optional.ofNullable(address).ifPresent(station::setAddress);
+                Optional.ofNullable(image).ifPresent(station::setImage);
+                Optional.ofNullable(latitude).ifPresent(station::setLatitude);
+                Optional.ofNullable(longitude).ifPresent(station::setLongitude);
+            });
+        }
+        Long siteId = name == null ? null : this.evStationSites.siteId(name);
+        Optional<EVStation> updated = this.evStationRepository.updateIfVersion(id, expectedVersion, name, price, address, image, latitude, longitude, siteId);
+        if (updated.isEmpty()) {
+            if (this.evStationRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("EVStation " + id + " was changed by another request");
+            }
+            throw new EmptyResultDataAccessException("EVStation " + id + " does not exist", 1);
         }
+        this.eventPublisher.publishEvent(new EVStationChangedEvent(EVStationChangedEvent.Type.UPDATED, id, updated.get()));
+        return updated.get();
     }
 
-    public void deleteEVStation(Long id) throws IOException {
-        if (this.evStationRepository.findById(id).isPresent()) {
-            String imageName = this.evStationRepository.findById(id).get().getImage();
-            imageName = imageName.split("/")[imageName.split("/").length-1];
-            Files.delete(Paths.get(UPLOAD_DIRECTORY, imageName + ".jpeg"));
-            this.evStationRepository.deleteById(id);
+    public void deleteEVStation(Long id, Long expectedVersion) throws IOException {
+        Optional<EVStation> evStation = this.evStationRepository.findById(id);
+        if (evStation.isPresent()) {
+            Optional<EVStation> pending = this.evStationWriteBehind.pending(id);
+            long currentVersion = pending.orElse(evStation.get()).getVersion();
+            if (expectedVersion != null && currentVersion != expectedVersion) {
+                throw new OptimisticLockingFailureException("EVStation " + id + " was changed by another request");
+            }
+            // A pending edit may have moved the station to another image, and pending edits of
+            // other stations may refer to either image without a row doing so yet.
+            Set<String> images = new LinkedHashSet<>();
+            images.add(evStation.get().getImage());
+            pending.map(EVStation::getImage).ifPresent(images::add);
+            this.evStationRepository.delete(evStation.get());
+            for (String image : images) {
+                if (this.evStationRepository.countByImage(image) == 0) {
+                    String imageName = image.substring(image.lastIndexOf('/') + 1);
+                    afterCommit(() -> {
+                        if (!this.evStationWriteBehind.isImagePending(image, id)) {
+                            deleteImageFile(imageName);
+                        }
+                    });
+                }
+            }
+            afterCommit(() -> this.evStationWriteBehind.discard(id));
+            this.eventPublisher.publishEvent(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, id, null));
         } else {
-            throw new RuntimeException("EVStation does not exits");
+            throw new EmptyResultDataAccessException("EVStation " + id + " does not exist", 1);
         }
     }
 
+    @Transactional(readOnly = true)
     public List<EVStation> getLimitedEVStations(int limit) {
+        Optional<List<EVStation>> byName = this.evStationCache.peekView(viewKey("name", true));
+        if (byName.isPresent()) {
+            return byName.get().subList(0, Math.min(limit, byName.get().size()));
+        }
         Pageable limited = PageRequest.ofSize(limit);
-        return this.evStationRepository.findAllByOrderByName(limited);
+        return this.evStationCache.getView("name:limit:" + limit, () -> this.evStationRepository.findAllByOrderByName(limited));
     }
 
+    @Transactional(readOnly = true)
     public List<EVStation> getSortedEVStations(String sort, String param) {
-        Sort sortQuery;
-        switch(param.toUpperCase()) {
+        String property = sortProperty(param);
+        boolean ascending = sort.equalsIgnoreCase("asc");
+        return this.evStationCache.getView(viewKey(property, ascending), () -> this.evStationRepository.findAll(sortBy(property, ascending)));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getEVStations(EVStationFields fields) {
+        return this.evStationCache.getProjectedView("all?fields=" + fields.key(), () -> this.evStationRepository
+                .findFieldsByPriceBetween(fields.getNames(), -Float.MAX_VALUE, Float.MAX_VALUE, Sort.unsorted()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getLimitedEVStations(int limit, EVStationFields fields) {
+        Pageable limited = PageRequest.of(0, limit, Sort.by("name"));
+        return this.evStationCache.getProjectedView("name:limit:" + limit + "?fields=" + fields.key(), () -> this.evStationRepository
+                .findFieldsByPriceBetween(fields.getNames(), -Float.MAX_VALUE, Float.MAX_VALUE, limited));
+    }
+
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getSortedEVStations(String sort, String param, EVStationFields fields) {
+        String property = sortProperty(param);
+        boolean ascending = sort.equalsIgnoreCase("asc");
+        return this.evStationCache.getProjectedView(viewKey(property, ascending) + "?fields=" + fields.key(), () -> this.evStationRepository
+                .findFieldsByPriceBetween(fields.getNames(), -Float.MAX_VALUE, Float.MAX_VALUE, sortBy(property, ascending)));
+    }
+
+    private static Sort sortBy(String property, boolean ascending) {
+        return ascending ? Sort.by(property).ascending() : Sort.by(property).descending();
+    }
+
+    @Transactional(readOnly = true)
+    public EVStationPage<EVStation> getEVStationPage(String sort, String param, String cursor, int size) {
+        return getEVStationPage(sort, param, cursor, size, null, null);
+    }
+
+    @Transactional(readOnly = true)
+    public EVStationPage<EVStation> getEVStationPage(String sort, String param, String cursor, int size, Float minPrice, Float maxPrice) {
+        return page(sort, param, cursor, size, minPrice, maxPrice,
+                (after, order, from, to, limit) -> after == null
+                        ? this.evStationRepository.findAllByPriceBetween(from, to, PageRequest.of(0, limit, order))
+                        : findPageAfter(after, from, to, PageRequest.ofSize(limit)),
+                EVStation::getId, EVStationService::sortValue);
+    }
+
+    /**
+     * Keyset page of sparse rows. The sort column is selected even when it was not asked for,
+     * because the next cursor is built from it, and removed again before returning.
+     */
+    @Transactional(readOnly = true)
+    public EVStationPage<Map<String, Object>> getEVStationPage(String sort, String param, String cursor, int size,
+                                                               Float minPrice, Float maxPrice, EVStationFields fields) {
+        EVStationPage<Map<String, Object>> page = page(sort, param, cursor, size, minPrice, maxPrice,
+                (after, order, from, to, limit) -> {
+                    String property = order.iterator().next().getProperty();
+                    Pageable window = PageRequest.of(0, limit, order);
+                    return after == null
+                            ? this.evStationRepository.findFieldsByPriceBetween(fields.with(property), from, to, window)
+                            : this.evStationRepository.findFieldsAfter(fields.with(property), after.getLastId(), keysetValue(after), from, to, window);
+                },
+                row -> (Long) row.get("id"), (row, property) -> String.valueOf(row.get(property)));
+        page.getStations().forEach(row -> row.keySet().retainAll(fields.getNames()));
+        return page;
+    }
+
+    private interface PageQuery<T> {
+        List<T> find(EVStationCursor after, Sort order, float minPrice, float maxPrice, int limit);
+    }
+
+    private <T> EVStationPage<T> page(String sort, String param, String cursor, int size, Float minPrice, Float maxPrice,
+                                      PageQuery<T> query, ToLongFunction<T> id, BiFunction<T, String, String> sortValue) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        Optional<EVStationCursor> after = Optional.ofNullable(cursor).map(EVStationCursor::decode);
+        String property = after.map(EVStationCursor::getProperty).orElseGet(() -> sortProperty(param));
+        boolean ascending = after.map(EVStationCursor::isAscending).orElseGet(() -> sort == null || sort.equalsIgnoreCase("asc"));
+        Float lowest = after.isPresent() ? after.get().getMinPrice() : minPrice;
+        Float highest = after.isPresent() ? after.get().getMaxPrice() : maxPrice;
+        validatePriceRange(lowest, highest);
+        float from = Optional.ofNullable(lowest).orElse(-Float.MAX_VALUE);
+        float to = Optional.ofNullable(highest).orElse(Float.MAX_VALUE);
+        Sort.Direction direction = ascending ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort order = property.equals("id") ? Sort.by(direction, "id") : Sort.by(direction, property, "id");
+        List<T> stations = query.find(after.orElse(null), order, from, to, size + 1);
+        if (stations.size() <= size) {
+            return new EVStationPage<>(stations, null);
+        }
+        stations = new ArrayList<>(stations.subList(0, size));
+        T last = stations.get(size - 1);
+        EVStationCursor next = new EVStationCursor(property, ascending, id.applyAsLong(last), lowest, highest, sortValue.apply(last, property));
+        return new EVStationPage<>(stations, next.encode());
+    }
+
+    private List<EVStation> findPageAfter(EVStationCursor cursor, float minPrice, float maxPrice, Pageable window) {
+        switch (cursor.getProperty()) {
+            case "name":
+                return cursor.isAscending()
+                        ? this.evStationRepository.findPageAfterNameAscending(cursor.getLastValue(), cursor.getLastId(), minPrice, maxPrice, window)
+                        : this.evStationRepository.findPageAfterNameDescending(cursor.getLastValue(), cursor.getLastId(), minPrice, maxPrice, window);
+            case "price":
+                float price = Float.parseFloat(cursor.getLastValue());
+                return cursor.isAscending()
+                        ? this.evStationRepository.findPageAfterPriceAscending(price, cursor.getLastId(), minPrice, maxPrice, window)
+                        : this.evStationRepository.findPageAfterPriceDescending(price, cursor.getLastId(), minPrice, maxPrice, window);
+            case "id":
+                return cursor.isAscending()
+                        ? this.evStationRepository.findPageAfterIdAscending(cursor.getLastId(), minPrice, maxPrice, window)
+                        : this.evStationRepository.findPageAfterIdDescending(cursor.getLastId(), minPrice, maxPrice, window);
+            default:
+                throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    private static Object keysetValue(EVStationCursor cursor) {
+        switch (cursor.getProperty()) {
+            case "name":
+                return cursor.getLastValue();
+            case "price":
+                return Float.parseFloat(cursor.getLastValue());
+            case "id":
+                return cursor.getLastId();
+            default:
+                throw new IllegalArgumentException("Malformed cursor");
+        }
+    }
+
+    /**
+     * Count, minimum, maximum, average and an equal-width histogram of the station prices
+     * in the given range. Both aggregates are computed by the database from STATION_PRICING_IDX,
+     * so no station rows are loaded.
+     */
+    @Transactional(readOnly = true)
+    public EVStationPriceSummary getPriceSummary(int buckets, Float minPrice, Float maxPrice) {
+        if (buckets < 1 || buckets > MAX_PRICE_BUCKETS) {
+            throw new IllegalArgumentException("Bucket count must be between 1 and " + MAX_PRICE_BUCKETS);
+        }
+        validatePriceRange(minPrice, maxPrice);
+        float from = Optional.ofNullable(minPrice).orElse(-Float.MAX_VALUE);
+        float to = Optional.ofNullable(maxPrice).orElse(Float.MAX_VALUE);
+        EVStationPriceStatistics statistics = this.evStationRepository.findPriceStatistics(from, to);
+        List<EVStationPriceSummary.Bucket> histogram = new ArrayList<>();
+        if (statistics.getCount() == 0) {
+            return new EVStationPriceSummary(0, null, null, null, histogram);
+        }
+        float lowest = statistics.getMinimum();
+        float highest = statistics.getMaximum();
+        int bucketCount = lowest == highest ? 1 : buckets;
+        double width = lowest == highest ? 1 : ((double) highest - lowest) / bucketCount;
+        long[] counts = new long[bucketCount];
+        for (EVStationPriceBucket bucket : this.evStationRepository.findPriceHistogram(lowest, width, bucketCount - 1, from, to)) {
+            counts[bucket.getBucket()] = bucket.getStations();
+        }
+        for (int i = 0; i < bucketCount; i++) {
+            float bucketFrom = (float) (lowest + i * width);
+            float bucketTo = i == bucketCount - 1 ? highest : (float) (lowest + (i + 1) * width);
+            histogram.add(new EVStationPriceSummary.Bucket(bucketFrom, bucketTo, counts[i]));
+        }
+        return new EVStationPriceSummary(statistics.getCount(), lowest, highest, statistics.getAverage(), histogram);
+    }
+
+    private static void validatePriceRange(Float minPrice, Float maxPrice) {
+        if ((minPrice != null && !Float.isFinite(minPrice)) || (maxPrice != null && !Float.isFinite(maxPrice))) {
+            throw new IllegalArgumentException("Price bounds must be finite numbers");
+        }
+        if (minPrice != null && maxPrice != null && minPrice > maxPrice) {
+            throw new IllegalArgumentException("minPrice must not be greater than maxPrice");
+        }
+    }
+
+    static void validateLocation(Double latitude, Double longitude) {
+        if ((latitude == null) != (longitude == null)) {
+            throw new IllegalArgumentException("Latitude and longitude must be given together");
+        }
+        if (latitude != null && (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)) {
+            throw new IllegalArgumentException("Coordinates out of range");
+        }
+    }
+
+    private static String sortProperty(String param) {
+        switch (Optional.ofNullable(param).orElse("").toUpperCase()) {
             case "STATION_NAME":
-                if (sort.equalsIgnoreCase( "asc")) {
-                    sortQuery = Sort.by("name").ascending();
-                } else  {
-                    sortQuery = Sort.by("name").descending();
-                }
-                break;
+                return "name";
             case "STATION_PRICING":
-                if (sort.equalsIgnoreCase( "asc")) {
-                    sortQuery = Sort.by("price").ascending();
-                }
-                else {
-                    sortQuery = Sort.by("price").descending();
-                }
-                break;
-            default: if (sort.equalsIgnoreCase( "asc")) {
-                sortQuery = Sort.by("id").ascending();
-            }
-            else {
-                sortQuery = Sort.by("id").descending();
-            }
+                return "price";
+            default:
+                return "id";
         }
-        return this.evStationRepository.findAll(sortQuery);
     }
-    public EVStation updateOrSave(Long id, String name, float price, String address, String imageName) {
+
+    private static String viewKey(String property, boolean ascending) {
+        return property + (ascending ? ":asc" : ":desc");
+    }
+
+    private static String sortValue(EVStation station, String property) {
+        switch (property) {
+            case "name":
+                return station.getName();
+            case "price":
+                return Float.toString(station.getPrice());
+            default:
+                return Long.toString(station.getId());
+        }
+    }
+
+    public EVStation updateOrSave(Long id, String name, float price, String address, String imageName, Double latitude, Double longitude) {
         Optional<Long> optionalId = Optional.ofNullable(id);
         EVStation newEVStation = new EVStation();
         if (optionalId.isPresent()) {
@@ -124,18 +498,114 @@ public class EVStationService {
         newEVStation.setName(name);
         newEVStation.setPrice(price);
         newEVStation.setAddress(address);
-        if (imageName.startsWith("/api/stations/images/")) {
+        newEVStation.setLatitude(latitude);
+        newEVStation.setLongitude(longitude);
+        newEVStation.setSite(site(name));
+        if (imageName.startsWith(IMAGE_PATH)) {
             newEVStation.setImage(imageName);
         } else {
-            newEVStation.setImage("/api/stations/images/" + imageName);
+            newEVStation.setImage(IMAGE_PATH + imageName);
         }
-        return this.evStationRepository.save(newEVStation);
+        EVStation savedEVStation = this.evStationRepository.save(newEVStation);
+        EVStationChangedEvent.Type type = optionalId.isPresent() ? EVStationChangedEvent.Type.UPDATED : EVStationChangedEvent.Type.CREATED;
+        this.eventPublisher.publishEvent(new EVStationChangedEvent(type, savedEVStation.getId(), savedEVStation));
+        return savedEVStation;
     }
 
+    private Site site(String name) {
+        Long siteId = this.evStationSites.siteId(name);
+        return siteId == null ? null : this.entityManager.getReference(Site.class, siteId);
+    }
+
+    /**
+     * Stores the image under the MD5 of its content. The upload is hashed first so an image
+     * that is already stored costs a single read; new content is copied to a staging file
+     * and then handed to the image store.
+     */
     private String uploadImage(MultipartFile image) throws IOException{
-        String imageName = DigestUtils.md5DigestAsHex(image.getBytes());
-        Path fileNameAndPath = Paths.get(UPLOAD_DIRECTORY, imageName + ".jpeg");
-        Files.write(fileNameAndPath, image.getBytes());
+        String imageName;
+        long hashStart = System.nanoTime();
+        try (InputStream content = image.getInputStream()) {
+            imageName = DigestUtils.md5DigestAsHex(content);
+        }
+        this.stationMetrics.imageHashed(System.nanoTime() - hashStart);
+        String key = EVStationImageVariants.originalKey(imageName);
+        if (this.imageStore.exists(key)) {
+            return imageName;
+        }
+        Path stagingFile = this.imageStore.createStagingFile();
+        try (InputStream content = image.getInputStream()) {
+            long written = Files.copy(content, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+            this.imageStore.put(key, stagingFile);
+            this.stationMetrics.imageWritten(written);
+        } finally {
+            Files.deleteIfExists(stagingFile);
+        }
         return imageName;
     }
+
+    /**
+     * Stores an image from a stream that can only be read once, hashing it while it is copied.
+     * Streams longer than maximumBytes are rejected.
+     */
+    public String storeImage(InputStream content, long maximumBytes) throws IOException {
+        Path stagingFile = this.imageStore.createStagingFile();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("MD5");
+            long total = 0;
+            try (InputStream digested = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(stagingFile)) {
+                byte[] buffer = new byte[8192];
+                for (int read = digested.read(buffer); read != -1; read = digested.read(buffer)) {
+                    total += read;
+                    if (total > maximumBytes) {
+                        throw new IllegalArgumentException("Image larger than " + maximumBytes + " bytes");
+                    }
+                    out.write(buffer, 0, read);
+                }
+            }
+            String imageName = String.format("%032x", new BigInteger(1, digest.digest()));
+            String key = EVStationImageVariants.originalKey(imageName);
+            if (!this.imageStore.exists(key)) {
+                this.imageStore.put(key, stagingFile);
+                this.stationMetrics.imageWritten(total);
+                this.evStationImageVariants.schedule(imageName);
+            }
+            return imageName;
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            Files.deleteIfExists(stagingFile);
+        }
+    }
+
+    public boolean imageExists(String imageName) {
+        try {
+            return IMAGE_NAME.matcher(imageName).matches() && this.imageStore.exists(EVStationImageVariants.originalKey(imageName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteImageFile(String imageName) {
+        try {
+            this.evStationImageVariants.delete(imageName);
+            this.imageStore.delete(EVStationImageVariants.originalKey(imageName));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
 }
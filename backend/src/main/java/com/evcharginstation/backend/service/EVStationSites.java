@@ -0,0 +1,55 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.OperatorSiteRepository;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Assigns stations to sites by name. A name of the form "OPERATOR / SITE" is split at the
+ * first slash, like the V4 migration split the existing names, and refers to that site of
+ * that operator, both created on first use. Other names belong to no site.
+ */
+@Component
+public class EVStationSites {
+    private final OperatorSiteRepository operatorSiteRepository;
+
+    public EVStationSites(OperatorSiteRepository operatorSiteRepository) {
+        this.operatorSiteRepository = operatorSiteRepository;
+    }
+
+    /**
+     * Returns the id of the site the station name refers to, or null. Must be called in the
+     * transaction that writes the station, so a site created here is rolled back with it.
+     */
+    public Long siteId(String stationName) {
+        int separator = stationName == null ? -1 : stationName.indexOf('/');
+        if (separator < 0) {
+            return null;
+        }
+        String operator = stationName.substring(0, separator).trim();
+        String site = stationName.substring(separator + 1).trim();
+        if (operator.isEmpty() || site.isEmpty()) {
+            return null;
+        }
+        return this.operatorSiteRepository.findSiteId(operator, site).orElseGet(() -> {
+            try {
+                return this.operatorSiteRepository.mergeSite(operator, site);
+            } catch (DuplicateKeyException e) {
+                return this.operatorSiteRepository.findSiteId(operator, site).orElseThrow(() -> e);
+            }
+        });
+    }
+
+    /**
+     * Resolves each distinct name once, for assigning a batch of stations in one transaction.
+     */
+    public Function<String, Long> batch() {
+        Map<String, Optional<Long>> siteIds = new HashMap<>();
+        return stationName -> siteIds.computeIfAbsent(stationName, name -> Optional.ofNullable(siteId(name))).orElse(null);
+    }
+}
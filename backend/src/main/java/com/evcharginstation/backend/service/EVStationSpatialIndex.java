@@ -0,0 +1,245 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationLocation;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Uniform latitude/longitude grid over every station that has coordinates. Nearest
+ * neighbour queries walk rings of cells outwards from the query point and stop as soon
+ * as no unvisited cell can hold anything closer than the k-th match found so far.
+ */
+@Component
+public class EVStationSpatialIndex {
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE = EARTH_RADIUS_METERS * Math.PI / 180;
+
+    private final EVStationRepository evStationRepository;
+    private final double cellDegrees;
+    private final int rows;
+    private final int columns;
+    private final Map<Long, Point> points = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Point>> cells = new ConcurrentHashMap<>();
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    public EVStationSpatialIndex(EVStationRepository evStationRepository,
+                                 @Value("${stations.geo.cell-degrees:0.01}") double cellDegrees) {
+        this.evStationRepository = evStationRepository;
+        this.cellDegrees = cellDegrees;
+        this.rows = (int) Math.ceil(180 / cellDegrees) + 1;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        this.loading = true;
+        for (EVStationLocation location : this.evStationRepository.findAllLocations()) {
+            synchronized (this) {
+                if (!this.changedWhileLoading.contains(location.getId())) {
+                    put(location.getId(), location.getLatitude(), location.getLongitude());
+                }
+            }
+        }
+        this.loading = false;
+        this.changedWhileLoading.clear();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStationChanged(EVStationChangedEvent event) {
+        if (this.loading) {
+            this.changedWhileLoading.add(event.getId());
+        }
+        EVStation station = event.getStation();
+        if (event.getType() == EVStationChangedEvent.Type.DELETED
+                || station == null || station.getLatitude() == null || station.getLongitude() == null) {
+            remove(event.getId());
+        } else {
+            put(event.getId(), station.getLatitude(), station.getLongitude());
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStationsImported(EVStationsImportedEvent event) {
+        for (EVStation station : event.getStations()) {
+            if (this.loading) {
+                this.changedWhileLoading.add(station.getId());
+            }
+            if (station.getLatitude() != null && station.getLongitude() != null) {
+                put(station.getId(), station.getLatitude(), station.getLongitude());
+            }
+        }
+    }
+
+    public int size() {
+        return this.points.size();
+    }
+
+    /**
+     * Returns the ids of at most k stations within radiusMeters, closest first.
+     */
+    public List<Long> nearest(double latitude, double longitude, double radiusMeters, int k) {
+        int row = row(latitude);
+        int column = column(longitude);
+        double radiusDegrees = radiusMeters / METERS_PER_DEGREE;
+        double south = Math.max(-90, latitude - radiusDegrees);
+        double north = Math.min(90, latitude + radiusDegrees);
+        int rowLow = row(south) - row;
+        int rowHigh = row(north) - row;
+
+        // Two points at most radiusDegrees apart are at most this many degrees of longitude
+        // apart, unless the radius reaches over a pole. cosineFactor bounds
+        // sqrt(cos(latitude) * cos(other latitude)) from below within the band.
+        double cosineFactor = Math.sqrt(Math.cos(Math.toRadians(latitude))
+                * Math.cos(Math.toRadians(Math.max(Math.abs(south), Math.abs(north)))));
+        double longitudeSine = Math.sin(Math.toRadians(radiusDegrees) / 2) / cosineFactor;
+        int columnHigh = longitudeSine >= 1 || north == 90 || south == -90
+                ? this.columns / 2
+                : Math.min(this.columns / 2, (int) Math.ceil(2 * Math.toDegrees(Math.asin(longitudeSine)) / this.cellDegrees) + 1);
+        // Longitude wraps, so a ring never needs more than every column once.
+        int columnLow = Math.max(-columnHigh, columnHigh - this.columns + 1);
+
+        PriorityQueue<Neighbour> best = new PriorityQueue<>(Comparator.comparingDouble((Neighbour n) -> n.distance).reversed());
+        long regionCells = (long) (rowHigh - rowLow + 1) * (columnHigh - columnLow + 1);
+        if (regionCells > this.points.size()) {
+            // Fewer stations than cells to visit, typically near the poles where cells are narrow.
+            this.points.values().forEach(point -> offer(best, k, point, latitude, longitude, radiusMeters));
+        } else {
+            int maximumRing = Math.max(Math.max(-rowLow, rowHigh), Math.max(-columnLow, columnHigh));
+            for (int ring = 0; ring <= maximumRing; ring++) {
+                double bound = ringLowerBound(ring, cosineFactor);
+                if (bound > radiusMeters || (best.size() == k && bound > best.peek().distance)) {
+                    break;
+                }
+                int fromColumn = Math.max(-ring, columnLow);
+                int toColumn = Math.min(ring, columnHigh);
+                for (int dRow = Math.max(-ring, rowLow); dRow <= Math.min(ring, rowHigh); dRow++) {
+                    if (Math.abs(dRow) == ring) {
+                        for (int dColumn = fromColumn; dColumn <= toColumn; dColumn++) {
+                            visit(best, k, row + dRow, column + dColumn, latitude, longitude, radiusMeters);
+                        }
+                    } else {
+                        if (fromColumn == -ring) {
+                            visit(best, k, row + dRow, column - ring, latitude, longitude, radiusMeters);
+                        }
+                        if (toColumn == ring) {
+                            visit(best, k, row + dRow, column + ring, latitude, longitude, radiusMeters);
+                        }
+                    }
+                }
+            }
+        }
+        List<Neighbour> ordered = new ArrayList<>(best);
+        ordered.sort(Comparator.comparingDouble(n -> n.distance));
+        List<Long> ids = new ArrayList<>(ordered.size());
+        ordered.forEach(neighbour -> ids.add(neighbour.id));
+        return ids;
+    }
+
+    private void visit(PriorityQueue<Neighbour> best, int k, int row, int column, double latitude, double longitude, double radiusMeters) {
+        Map<Long, Point> cell = this.cells.get(cellKey(row, Math.floorMod(column, this.columns)));
+        if (cell != null) {
+            cell.values().forEach(point -> offer(best, k, point, latitude, longitude, radiusMeters));
+        }
+    }
+
+    private static void offer(PriorityQueue<Neighbour> best, int k, Point point, double latitude, double longitude, double radiusMeters) {
+        double distance = distanceMeters(latitude, longitude, point.latitude, point.longitude);
+        if (distance <= radiusMeters && (best.size() < k || distance < best.peek().distance)) {
+            best.add(new Neighbour(point.id, distance));
+            if (best.size() > k) {
+                best.poll();
+            }
+        }
+    }
+
+    static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.pow(Math.sin(dLatitude / 2), 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * Math.pow(Math.sin(dLongitude / 2), 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    // Every cell in ring r is at least r - 1 whole cells away in latitude or in longitude.
+    private double ringLowerBound(int ring, double cosineFactor) {
+        double separation = Math.toRadians((ring - 1) * this.cellDegrees);
+        if (separation <= 0) {
+            return 0;
+        }
+        double latitudeBound = separation * EARTH_RADIUS_METERS;
+        double longitudeBound = 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, cosineFactor * Math.sin(separation / 2)));
+        return Math.min(latitudeBound, longitudeBound);
+    }
+
+    private void put(long id, double latitude, double longitude) {
+        remove(id);
+        Point point = new Point(id, latitude, longitude, cellKey(row(latitude), column(longitude)));
+        this.points.put(id, point);
+        this.cells.computeIfAbsent(point.cell, key -> new ConcurrentHashMap<>()).put(id, point);
+    }
+
+    private void remove(long id) {
+        Point previous = this.points.remove(id);
+        if (previous != null) {
+            this.cells.computeIfPresent(previous.cell, (key, cell) -> {
+                cell.remove(id);
+                return cell.isEmpty() ? null : cell;
+            });
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / this.cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / this.cellDegrees), this.columns);
+    }
+
+    private long cellKey(int row, int column) {
+        return (long) row * this.columns + column;
+    }
+
+    private static final class Point {
+        private final long id;
+        private final double latitude;
+        private final double longitude;
+        private final long cell;
+
+        private Point(long id, double latitude, double longitude, long cell) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+        }
+    }
+
+    private static final class Neighbour {
+        private final long id;
+        private final double distance;
+
+        private Neighbour(long id, double distance) {
+            this.id = id;
+            this.distance = distance;
+        }
+    }
+}
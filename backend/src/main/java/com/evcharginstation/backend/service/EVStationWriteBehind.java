@@ -0,0 +1,345 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.EVStationBatchRepository;
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Write-behind for station edits, enabled with stations.writes.mode=write-behind.
+ *
+ * <p>An edit is acknowledged once the resulting station has been appended to a local log
+ * and forced to disk. Concurrent appenders share a single force. Edits are kept per station
+ * id, so a station edited many times between flushes is written once. Flushes run every
+ * flush-interval, or sooner once batch-size stations are pending, as one batched UPDATE.
+ * Listeners hear about an edit when its flush commits. The log is replayed on startup, so
+ * acknowledged edits survive a crash. Rows are only written over by a newer version, so a
+ * replayed record that was already flushed cannot roll back a later edit.
+ *
+ * <p>Read-your-writes: reading a station by id returns its pending edit, and a version
+ * check sees the pending version. Lists, search, nearby and export read the database, so
+ * they show an edit after the next flush.
+ */
+@Component
+public class EVStationWriteBehind implements MeterBinder {
+    static final String WRITE_BEHIND_MODE = "write-behind";
+    private static final Logger LOGGER = LoggerFactory.getLogger(EVStationWriteBehind.class);
+    private static final Pattern SEGMENT_NAME = Pattern.compile("stations-(\\d+)\\.log");
+    private static final ObjectMapper LOG_MAPPER = new ObjectMapper();
+    private static final ObjectWriter LOG_WRITER = LOG_MAPPER.writerFor(EVStation.class);
+    private static final ObjectReader LOG_READER = LOG_MAPPER.readerFor(EVStation.class);
+
+    private final boolean enabled;
+    private final EVStationBatchRepository evStationBatchRepository;
+    private final EVStationSites evStationSites;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+    private final Path directory;
+    private final Map<Long, EVStation> pending = new ConcurrentHashMap<>();
+    private final Object[] stationLocks = new Object[64];
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final Object syncLock = new Object();
+    private final Object appendLock = new Object();
+    private ScheduledExecutorService flusher;
+    private FileChannel segment;
+    private long segmentNumber;
+    private long written;
+    private long synced;
+
+    public EVStationWriteBehind(EVStationBatchRepository evStationBatchRepository, EVStationSites evStationSites,
+                                PlatformTransactionManager transactionManager, ApplicationEventPublisher eventPublisher,
+                                @Value("${stations.writes.mode:direct}") String mode,
+                                @Value("${stations.writes.log-directory:data/write-behind}") String directory,
+                                @Value("${stations.writes.flush-interval:PT1S}") Duration flushInterval,
+                                @Value("${stations.writes.batch-size:500}") int batchSize) throws IOException {
+        this.enabled = WRITE_BEHIND_MODE.equalsIgnoreCase(mode);
+        this.evStationBatchRepository = evStationBatchRepository;
+        this.evStationSites = evStationSites;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+        this.directory = Paths.get(directory);
+        for (int i = 0; i < this.stationLocks.length; i++) {
+            this.stationLocks[i] = new Object();
+        }
+        if (!this.enabled) {
+            return;
+        }
+        Files.createDirectories(this.directory);
+        replay();
+        this.segment = openSegment(this.segmentNumber + 1);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "station-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public Optional<EVStation> pending(long id) {
+        return Optional.ofNullable(this.pending.get(id));
+    }
+
+    /**
+     * Applies changes to the latest version of a station, its pending edit if there is one,
+     * and returns the new version once it is durable in the log. A given expected version
+     * must still be current.
+     */
+    public EVStation update(long id, Long expectedVersion, Function<Long, Optional<EVStation>> loader, Consumer<EVStation> changes) {
+        EVStation updated;
+        synchronized (this.stationLocks[(int) Math.floorMod(id, (long) this.stationLocks.length)]) {
+            EVStation current = pending(id).or(() -> loader.apply(id))
+                    .orElseThrow(() -> new EmptyResultDataAccessException("EVStation " + id + " does not exist", 1));
+            if (expectedVersion != null && current.getVersion() != expectedVersion) {
+                throw new OptimisticLockingFailureException("EVStation " + id + " was changed by another request");
+            }
+            updated = copy(current);
+            changes.accept(updated);
+            updated.setVersion(current.getVersion() + 1);
+            append(updated);
+        }
+        if (this.pending.size() >= this.batchSize && this.flushRequested.compareAndSet(false, true)) {
+            this.flusher.execute(this::flush);
+        }
+        return updated;
+    }
+
+    /**
+     * Whether a pending edit of a station other than exceptId refers to the image, which
+     * must then be kept even if no row refers to it yet.
+     */
+    public boolean isImagePending(String image, long exceptId) {
+        return this.pending.values().stream().anyMatch(station -> station.getId() != exceptId && image.equals(station.getImage()));
+    }
+
+    /**
+     * Forgets the pending edit of a deleted station. Should it come back from the log after
+     * a crash, its UPDATE simply matches no row.
+     */
+    public void discard(long id) {
+        this.pending.remove(id);
+    }
+
+    void flush() {
+        this.flushRequested.set(false);
+        List<EVStation> batch;
+        List<Path> sealed;
+        synchronized (this.syncLock) {
+            synchronized (this.appendLock) {
+                sealed = segments().stream()
+                        .filter(path -> segmentNumber(path) != this.segmentNumber)
+                        .collect(Collectors.toList());
+                if (this.pending.isEmpty() && this.written == 0) {
+                    deleteSegments(sealed);
+                    return;
+                }
+                batch = new ArrayList<>(this.pending.values());
+                try {
+                    this.segment.force(false);
+                    this.segment.close();
+                    sealed.add(segmentPath(this.segmentNumber));
+                    this.segment = openSegment(this.segmentNumber + 1);
+                } catch (IOException e) {
+                    LOGGER.warn("Could not roll the station write log", e);
+                    return;
+                }
+                this.synced = this.written;
+            }
+        }
+        try {
+            int[][] counts = this.transactionTemplate.execute(status -> {
+                Function<String, Long> siteIds = this.evStationSites.batch();
+                return this.evStationBatchRepository.updateAll(batch, station -> siteIds.apply(station.getName()), this.batchSize);
+            });
+            int index = 0;
+            for (int[] batchCounts : counts) {
+                for (int count : batchCounts) {
+                    EVStation station = batch.get(index++);
+                    if (count != 0) {
+                        this.eventPublisher.publishEvent(new EVStationChangedEvent(EVStationChangedEvent.Type.UPDATED, station.getId(), station));
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            LOGGER.warn("Could not write {} pending station edits, retrying with the next flush", batch.size(), e);
+            return;
+        }
+        batch.forEach(station -> this.pending.remove(station.getId(), station));
+        deleteSegments(sealed);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("stations.writes.pending", this.pending, Map::size)
+                .description("Acknowledged station edits not yet written to the database")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException {
+        if (!this.enabled) {
+            return;
+        }
+        this.flusher.shutdownNow();
+        flush();
+        synchronized (this.syncLock) {
+            synchronized (this.appendLock) {
+                this.segment.close();
+            }
+        }
+    }
+
+    // The edit becomes pending under the same lock as its append, so a flush that rolls the
+    // log either sees the edit or leaves its record in the live segment.
+    private void append(EVStation station) {
+        long end;
+        try {
+            byte[] record = LOG_WRITER.writeValueAsBytes(station);
+            ByteBuffer buffer = ByteBuffer.allocate(record.length + 1).put(record).put((byte) '\n').flip();
+            synchronized (this.appendLock) {
+                while (buffer.hasRemaining()) {
+                    this.segment.write(buffer);
+                }
+                this.written += record.length + 1;
+                end = this.written;
+                this.pending.put(station.getId(), station);
+            }
+            sync(end);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to the station write log", e);
+        }
+    }
+
+    // Whoever forces covers everything appended so far, so threads that queued up behind
+    // it usually find their record already on disk.
+    private void sync(long end) throws IOException {
+        synchronized (this.syncLock) {
+            if (this.synced >= end) {
+                return;
+            }
+            long target;
+            FileChannel channel;
+            synchronized (this.appendLock) {
+                target = this.written;
+                channel = this.segment;
+            }
+            channel.force(false);
+            this.synced = target;
+        }
+    }
+
+    private void replay() throws IOException {
+        for (Path path : segments()) {
+            this.segmentNumber = Math.max(this.segmentNumber, segmentNumber(path));
+            try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    try {
+                        EVStation station = LOG_READER.readValue(line);
+                        this.pending.put(station.getId(), station);
+                    } catch (IOException e) {
+                        LOGGER.warn("Skipping unreadable record in {}, it was not acknowledged", path.getFileName());
+                    }
+                }
+            }
+        }
+        if (!this.pending.isEmpty()) {
+            LOGGER.info("Replayed {} pending station edits from {}", this.pending.size(), this.directory);
+        }
+    }
+
+    private FileChannel openSegment(long number) throws IOException {
+        this.segmentNumber = number;
+        this.written = 0;
+        this.synced = 0;
+        return FileChannel.open(segmentPath(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+    }
+
+    private List<Path> segments() {
+        try (Stream<Path> files = Files.list(this.directory)) {
+            return files.filter(path -> SEGMENT_NAME.matcher(path.getFileName().toString()).matches())
+                    .sorted((first, second) -> Long.compare(segmentNumber(first), segmentNumber(second)))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Path segmentPath(long number) {
+        return this.directory.resolve("stations-" + number + ".log");
+    }
+
+    private static long segmentNumber(Path path) {
+        Matcher matcher = SEGMENT_NAME.matcher(path.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(1)) : -1;
+    }
+
+    private static void deleteSegments(List<Path> segments) {
+        for (Path path : segments) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                LOGGER.warn("Could not delete flushed station write log {}", path.getFileName(), e);
+            }
+        }
+    }
+
+    private static EVStation copy(EVStation station) {
+        EVStation copy = new EVStation();
+        copy.setId(station.getId());
+        copy.setName(station.getName());
+        copy.setPrice(station.getPrice());
+        copy.setAddress(station.getAddress());
+        copy.setImage(station.getImage());
+        copy.setLatitude(station.getLatitude());
+        copy.setLongitude(station.getLongitude());
+        copy.setVersion(station.getVersion());
+        return copy;
+    }
+}
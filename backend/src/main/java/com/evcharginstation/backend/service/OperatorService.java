@@ -0,0 +1,75 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.entity.Operator;
+import com.evcharginstation.backend.persistency.jpa.entity.Site;
+import com.evcharginstation.backend.persistency.jpa.projection.OperatorStatistics;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.persistency.jpa.repository.OperatorRepository;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional(readOnly = true)
+public class OperatorService {
+    public static final int MAX_STATIONS_PAGE_SIZE = 10_000;
+    private final OperatorRepository operatorRepository;
+    private final EVStationRepository evStationRepository;
+
+    public OperatorService(OperatorRepository operatorRepository, EVStationRepository evStationRepository) {
+        this.operatorRepository = operatorRepository;
+        this.evStationRepository = evStationRepository;
+    }
+
+    /**
+     * Station count and price range of every operator, aggregated by the database over
+     * STATION_SITE_IDX without loading station rows.
+     */
+    public List<OperatorSummary> getOperators() {
+        return this.operatorRepository.findAllStatistics().stream()
+                .map(OperatorService::summary)
+                .collect(Collectors.toList());
+    }
+
+    public Optional<OperatorSummary> getOperator(long id) {
+        return this.operatorRepository.findStatistics(id).map(OperatorService::summary);
+    }
+
+    /**
+     * Up to size stations of the operator with ids after the given one, loaded together
+     * with their sites in a single query.
+     */
+    public Optional<OperatorStations> getOperatorStations(long id, Long after, int size) {
+        if (size < 1 || size > MAX_STATIONS_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_STATIONS_PAGE_SIZE);
+        }
+        List<EVStation> stations = this.evStationRepository.findOperatorPageAfterId(id, Optional.ofNullable(after).orElse(Long.MIN_VALUE),
+                PageRequest.of(0, size));
+        if (stations.isEmpty()) {
+            return this.operatorRepository.findById(id)
+                    .map(operator -> new OperatorStations(operator.getId(), operator.getName(), new ArrayList<>(), null));
+        }
+        Map<Long, OperatorStations.SiteStations> sites = new LinkedHashMap<>();
+        for (EVStation station : stations) {
+            Site site = station.getSite();
+            sites.computeIfAbsent(site.getId(), siteId -> new OperatorStations.SiteStations(siteId, site.getName(), new ArrayList<>()))
+                    .getStations().add(station);
+        }
+        Operator operator = stations.get(0).getSite().getOperator();
+        Long next = stations.size() == size ? stations.get(stations.size() - 1).getId() : null;
+        return Optional.of(new OperatorStations(operator.getId(), operator.getName(), new ArrayList<>(sites.values()), next));
+    }
+
+    private static OperatorSummary summary(OperatorStatistics statistics) {
+        return new OperatorSummary(statistics.getId(), statistics.getName(), statistics.getSites(), statistics.getStations(),
+                statistics.getMinimumPrice(), statistics.getAveragePrice(), statistics.getMaximumPrice());
+    }
+}
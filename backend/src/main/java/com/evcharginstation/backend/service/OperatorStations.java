@@ -0,0 +1,63 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+
+import java.util.List;
+
+/**
+ * One page of the stations of an operator, grouped by site. The next page starts after
+ * the station id in next, which is null on the last page.
+ */
+public class OperatorStations {
+    private final long id;
+    private final String name;
+    private final List<SiteStations> sites;
+    private final Long next;
+
+    public OperatorStations(long id, String name, List<SiteStations> sites, Long next) {
+        this.id = id;
+        this.name = name;
+        this.sites = sites;
+        this.next = next;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<SiteStations> getSites() {
+        return sites;
+    }
+
+    public Long getNext() {
+        return next;
+    }
+
+    public static class SiteStations {
+        private final long id;
+        private final String name;
+        private final List<EVStation> stations;
+
+        public SiteStations(long id, String name, List<EVStation> stations) {
+            this.id = id;
+            this.name = name;
+            this.stations = stations;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public List<EVStation> getStations() {
+            return stations;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.evcharginstation.backend.service;
+
+public class OperatorSummary {
+    private final long id;
+    private final String name;
+    private final long sites;
+    private final long stations;
+    private final Float minimumPrice;
+    private final Double averagePrice;
+    private final Float maximumPrice;
+
+    public OperatorSummary(long id, String name, long sites, long stations, Float minimumPrice, Double averagePrice, Float maximumPrice) {
+        this.id = id;
+        this.name = name;
+        this.sites = sites;
+        this.stations = stations;
+        this.minimumPrice = minimumPrice;
+        this.averagePrice = averagePrice;
+        this.maximumPrice = maximumPrice;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getSites() {
+        return sites;
+    }
+
+    public long getStations() {
+        return stations;
+    }
+
+    public Float getMinimumPrice() {
+        return minimumPrice;
+    }
+
+    public Double getAveragePrice() {
+        return averagePrice;
+    }
+
+    public Float getMaximumPrice() {
+        return maximumPrice;
+    }
+}
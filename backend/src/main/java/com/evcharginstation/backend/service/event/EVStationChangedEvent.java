@@ -0,0 +1,38 @@
+package com.evcharginstation.backend.service.event;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+
+/**
+ * Published by EVStationService for every station write. Listeners that keep derived
+ * state should use @TransactionalEventListener so they only see committed changes.
+ * Bulk imports publish {@link EVStationsImportedEvent} instead.
+ */
+public class EVStationChangedEvent {
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    private final Type type;
+    private final long id;
+    private final EVStation station;
+
+    public EVStationChangedEvent(Type type, long id, EVStation station) {
+        this.type = type;
+        this.id = id;
+        this.station = station;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public EVStation getStation() {
+        return station;
+    }
+}
@@ -0,0 +1,21 @@
+package com.evcharginstation.backend.service.event;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+
+import java.util.List;
+
+/**
+ * Published by EVStationImportService once per chunk of created stations, so listeners
+ * invalidate and bump their state once per chunk rather than once per row.
+ */
+public class EVStationsImportedEvent {
+    private final List<EVStation> stations;
+
+    public EVStationsImportedEvent(List<EVStation> stations) {
+        this.stations = stations;
+    }
+
+    public List<EVStation> getStations() {
+        return stations;
+    }
+}
@@ -0,0 +1,47 @@
+package com.evcharginstation.backend.service.image;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Storage for station images and their variants, addressed by file name
+ * ({@code <md5>.jpeg}, {@code <md5>_thumb.jpeg}). Uploads are written to a staging file
+ * first and then handed over with {@link #put}, so readers never see a partial image.
+ */
+public interface ImageStore {
+    boolean exists(String key) throws IOException;
+
+    /**
+     * The stored image, or nothing when it does not exist. The content is read when the
+     * resource's input stream is opened, not up front.
+     */
+    Optional<Resource> open(String key) throws IOException;
+
+    Path createStagingFile() throws IOException;
+
+    /**
+     * Stores a file created by {@link #createStagingFile()} under the key, replacing any
+     * existing image. The staging file is gone afterwards.
+     */
+    void put(String key, Path stagingFile) throws IOException;
+
+    void copy(String sourceKey, String targetKey) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * Whether images are served by redirecting the client to {@link #redirect} instead of
+     * streaming them through the application.
+     */
+    default boolean redirects() {
+        return false;
+    }
+
+    default Optional<URI> redirect(String key) {
+        return Optional.empty();
+    }
+}
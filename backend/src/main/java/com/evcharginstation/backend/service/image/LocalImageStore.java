@@ -0,0 +1,84 @@
+package com.evcharginstation.backend.service.image;
+
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Images in a local directory, sharded by the first two pairs of hex digits of the name
+ * ({@code 02/3d/023d2e8c....jpeg}) so no single directory grows to millions of entries.
+ * Variants share the prefix of their original and end up next to it. Uploads are staged
+ * in {@code .staging} below the same directory so the final rename is atomic.
+ */
+public class LocalImageStore implements ImageStore {
+    private static final Pattern KEY = Pattern.compile("[0-9a-f]{4}[0-9A-Za-z_-]*\\.[a-z]+");
+
+    private final Path directory;
+    private final Path stagingDirectory;
+
+    public LocalImageStore(Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.stagingDirectory = this.directory.resolve(".staging");
+        Files.createDirectories(this.stagingDirectory);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(path(key));
+    }
+
+    @Override
+    public Optional<Resource> open(String key) {
+        Path path = path(key);
+        return Files.exists(path) ? Optional.of(new FileSystemResource(path)) : Optional.empty();
+    }
+
+    @Override
+    public Path createStagingFile() throws IOException {
+        return Files.createTempFile(this.stagingDirectory, "upload-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path stagingFile) throws IOException {
+        Path target = path(key);
+        Files.createDirectories(target.getParent());
+        Files.move(stagingFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Identical content is shared through a hard link instead of a second copy.
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        Path source = path(sourceKey);
+        Path target = path(targetKey);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.createLink(target, source);
+        } catch (UnsupportedOperationException | IOException e) {
+            Path stagingFile = createStagingFile();
+            try {
+                Files.copy(source, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+                put(targetKey, stagingFile);
+            } finally {
+                Files.deleteIfExists(stagingFile);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(path(key));
+    }
+
+    Path path(String key) {
+        if (!KEY.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid image key " + key);
+        }
+        return this.directory.resolve(key.substring(0, 2)).resolve(key.substring(2, 4)).resolve(key);
+    }
+}
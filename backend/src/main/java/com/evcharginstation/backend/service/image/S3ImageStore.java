@@ -0,0 +1,178 @@
+package com.evcharginstation.backend.service.image;
+
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Images in an S3 compatible bucket (AWS S3, MinIO, ...), so every node serves the same
+ * images. Reads stream the object body straight to the client; with a redirect expiry set,
+ * clients are instead sent to a presigned URL and fetch the image from the bucket.
+ * Uploads are staged in a local temporary directory and sent with their length known.
+ */
+public class S3ImageStore implements ImageStore, AutoCloseable {
+    private static final String CONTENT_TYPE = "image/jpeg";
+
+    private final S3Client client;
+    private final S3Presigner presigner;
+    private final String bucket;
+    private final String prefix;
+    private final Duration redirectExpiry;
+    private final Path stagingDirectory;
+
+    public S3ImageStore(S3Client client, S3Presigner presigner, String bucket, String prefix, Duration redirectExpiry,
+                        Path stagingDirectory) throws IOException {
+        this.client = client;
+        this.presigner = presigner;
+        this.bucket = bucket;
+        this.prefix = prefix;
+        this.redirectExpiry = redirectExpiry;
+        this.stagingDirectory = stagingDirectory;
+        Files.createDirectories(stagingDirectory);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return head(key).isPresent();
+    }
+
+    @Override
+    public Optional<Resource> open(String key) throws IOException {
+        return head(key).map(object -> new ObjectResource(key, object.contentLength()));
+    }
+
+    @Override
+    public Path createStagingFile() throws IOException {
+        return Files.createTempFile(this.stagingDirectory, "upload-", ".tmp");
+    }
+
+    @Override
+    public void put(String key, Path stagingFile) throws IOException {
+        try {
+            this.client.putObject(request -> request.bucket(this.bucket).key(objectKey(key)).contentType(CONTENT_TYPE),
+                    RequestBody.fromFile(stagingFile));
+        } catch (SdkException e) {
+            throw new IOException("Could not store image " + key, e);
+        } finally {
+            Files.deleteIfExists(stagingFile);
+        }
+    }
+
+    @Override
+    public void copy(String sourceKey, String targetKey) throws IOException {
+        try {
+            this.client.copyObject(request -> request
+                    .sourceBucket(this.bucket).sourceKey(objectKey(sourceKey))
+                    .destinationBucket(this.bucket).destinationKey(objectKey(targetKey)));
+        } catch (SdkException e) {
+            throw new IOException("Could not copy image " + sourceKey + " to " + targetKey, e);
+        }
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        try {
+            this.client.deleteObject(request -> request.bucket(this.bucket).key(objectKey(key)));
+        } catch (SdkException e) {
+            throw new IOException("Could not delete image " + key, e);
+        }
+    }
+
+    @Override
+    public boolean redirects() {
+        return this.redirectExpiry != null;
+    }
+
+    @Override
+    public Optional<URI> redirect(String key) {
+        if (this.redirectExpiry == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(this.presigner.presignGetObject(presign -> presign
+                    .signatureDuration(this.redirectExpiry)
+                    .getObjectRequest(request -> request.bucket(this.bucket).key(objectKey(key)))).url().toURI());
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        this.client.close();
+        this.presigner.close();
+    }
+
+    private Optional<HeadObjectResponse> head(String key) throws IOException {
+        try {
+            return Optional.of(this.client.headObject(request -> request.bucket(this.bucket).key(objectKey(key))));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (S3Exception e) {
+            if (e.statusCode() == 404) {
+                return Optional.empty();
+            }
+            throw new IOException("Could not look up image " + key, e);
+        } catch (SdkException e) {
+            throw new IOException("Could not look up image " + key, e);
+        }
+    }
+
+    private String objectKey(String key) {
+        return this.prefix + key;
+    }
+
+    private final class ObjectResource extends AbstractResource {
+        private final String key;
+        private final long contentLength;
+
+        private ObjectResource(String key, long contentLength) {
+            this.key = key;
+            this.contentLength = contentLength;
+        }
+
+        @Override
+        public boolean exists() {
+            return true;
+        }
+
+        @Override
+        public long contentLength() {
+            return this.contentLength;
+        }
+
+        @Override
+        public String getFilename() {
+            return this.key;
+        }
+
+        @Override
+        public String getDescription() {
+            return "S3 object s3://" + bucket + "/" + objectKey(this.key);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            try {
+                return client.getObject(request -> request.bucket(bucket).key(objectKey(this.key)));
+            } catch (SdkException e) {
+                throw new IOException("Could not read image " + this.key, e);
+            }
+        }
+    }
+}
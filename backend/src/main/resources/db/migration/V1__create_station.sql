@@ -0,0 +1,16 @@
+CREATE SEQUENCE STATION_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE STATION(
+  STATION_ID BIGINT DEFAULT NEXT VALUE FOR STATION_SEQ PRIMARY KEY,
+  STATION_NAME VARCHAR(64) NOT NULL,
+  STATION_IMAGE VARCHAR(100) NOT NULL,
+  STATION_PRICING DECFLOAT(4) NOT NULL,
+  STATION_ADDRESS VARCHAR(64),
+  STATION_LATITUDE DOUBLE PRECISION,
+  STATION_LONGITUDE DOUBLE PRECISION,
+  STATION_VERSION BIGINT DEFAULT 0 NOT NULL
+);
+
+CREATE INDEX STATION_IMAGE_IDX ON STATION(STATION_IMAGE);
+CREATE INDEX STATION_NAME_IDX ON STATION(STATION_NAME, STATION_ID);
+CREATE INDEX STATION_PRICING_IDX ON STATION(STATION_PRICING, STATION_ID);
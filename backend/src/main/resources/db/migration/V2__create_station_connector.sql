@@ -0,0 +1,7 @@
+CREATE TABLE STATION_CONNECTOR(
+  STATION_ID BIGINT NOT NULL REFERENCES STATION(STATION_ID) ON DELETE CASCADE,
+  CONNECTOR_ID INT NOT NULL,
+  CONNECTOR_STATUS VARCHAR(16) NOT NULL,
+  STATUS_UPDATED TIMESTAMP NOT NULL,
+  PRIMARY KEY (STATION_ID, CONNECTOR_ID)
+);
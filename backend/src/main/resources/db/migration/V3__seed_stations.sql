@@ -0,0 +1,23 @@
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (1, 'W1/W 1', '/api/stations/images/023d2e8c4029412e1532319af131e6d0', 4.17, '4100 Jackson Ave Austin Texas 78731');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (2, 'AISD / CENTRAL OFFICE1', '/api/stations/images/30275f53e7a3d2fb414269d92a611230', 5.17, '4000 S IH 35 Frontage Rd Austin Texas 78704');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (3, 'TFC / #11', '/api/stations/images/377e90f5de68a6181a906689456fc2ce', 6.17, '4601 W Guadalupe St Austin Texas 78751');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (4, 'INDEED TOWER / B3-L', '/api/stations/images/39e52cda4bae26686f2b35ebcb2c7b93', 3.17, '200 W 6th St Austin Texas 78701');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (5, 'PIE AE / VILLATGRACYFARM', '/api/stations/images/47670f7eed47624547ae12b9de5719c9', 8.17, '2600 Gracy Farms Ln Austin Texas 78758');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (6, 'RPP GARAGE / GARAGE 2', '/api/stations/images/47a747f4d9530ad104c33456887e1302', 4.27, '12455 Research Park Loop Austin Texas 78727');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (7, 'DOMAIN. / DOMAIN TW 02', '/api/stations/images/5478611f53b3a12dbe03f4e2d816247b', 5.37, '10721 Domain Drive Austin Texas 78758');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (8, 'WMERITAGE / STATION 2', '/api/stations/images/66c34c35243b000db504837336465945', 6.17, '4500 Steiner Ranch Blvd Austin Texas 78732');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (9, 'AMD GO GREEN / P300 FL2', '/api/stations/images/685f15a5cbf2e046af8ff42121a642ee', 7.67, '7171 Southwest Pkwy Austin Texas 78735');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (10, 'PIE AE / CONVENTION CTR2', '/api/stations/images/68a1ef7486f40f50a8787dd09bd166b7', 8.17, '201 E 2nd St Austin Texas 78701');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (11, 'CIELO CENTER / STATION 2', '/api/stations/images/74b20852fa8169ee0218c1d655f7d1fb', 3.87, '1250 S Capital of Texas Hwy Austin Texas 78746');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (12, 'SIENNATHOMPSON / #2', '/api/stations/images/75c8e5f3dfe24c2e0136ca373d863c26', 4.66, '525 Brazos St Austin Texas 78701');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (13, 'RIATA / DOMINION', '/api/stations/images/7fdbc307afd46d6fc69434386a5fc6e1', 7.89, '12340 Alameda Trace Cir Austin Texas 78727');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (14, 'ENDEAVOR REG / STATION 1', '/api/stations/images/8c668462a24d1576788a9b1cf5e0481b', 6.17, '11001 Lakeline Blvd Austin Texas 78717');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (15, 'GPT / GABLES 1', '/api/stations/images/8e80995f5aac8fe112fc86d105e34436', 5.17, '111 Sandra Muraida Way Austin Texas 78703');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (16, 'FOUNDRY / STATION 3', '/api/stations/images/91342c7ac9dbebfebb9a4e164c27d1cc', 7.36, '310 Comal St Austin Texas 78731');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (17, 'TRAVIS FLATS / FLATS STATION 2', '/api/stations/images/9919b3812563f25547de30f5a88e80e8', 5.77, '5325 Airport Blvd Austin Texas 78751');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (18, 'AISD / AKINS1', '/api/stations/images/9c62b439ea6325da9a7e93e1b9b4ed14', 5.80, '10701 S 1st St. Austin Texas 78748');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (19, 'HEB / HEB LAKEWAY #2', '/api/stations/images/a6865a0ac53c7f21fe39ba6aa69f9bce', 3.18, '2000 Ranch Rd 620 S Austin Texas 78734');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (20, 'WETT / 1', '/api/stations/images/e3c9513c972562992cf6cdb8e064b3d7', 4.19, '1901 Capital Pkwy Austin Texas 78746');
+INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_ADDRESS) VALUES (21, 'AISD / TRAVIS2', '/api/stations/images/ed713ceb8309ef29d601bade44ef2f2b', 4.97, '1211 E Oltorf St. Austin Texas 78704');
+
+ALTER SEQUENCE STATION_SEQ RESTART WITH 22;
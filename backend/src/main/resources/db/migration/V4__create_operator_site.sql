@@ -0,0 +1,44 @@
+CREATE TABLE OPERATOR(
+  OPERATOR_ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  OPERATOR_NAME VARCHAR(64) NOT NULL,
+  CONSTRAINT OPERATOR_NAME_UK UNIQUE (OPERATOR_NAME)
+);
+
+CREATE TABLE SITE(
+  SITE_ID BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  OPERATOR_ID BIGINT NOT NULL REFERENCES OPERATOR(OPERATOR_ID),
+  SITE_NAME VARCHAR(64) NOT NULL,
+  CONSTRAINT SITE_NAME_UK UNIQUE (OPERATOR_ID, SITE_NAME)
+);
+
+ALTER TABLE STATION ADD COLUMN SITE_ID BIGINT REFERENCES SITE(SITE_ID);
+
+CREATE INDEX STATION_SITE_IDX ON STATION(SITE_ID, STATION_PRICING);
+
+-- Names of the form 'OPERATOR / SITE' are split at the first slash, the same way
+-- EVStationSites splits the names of new and renamed stations.
+CREATE TABLE STATION_SITE_SPLIT AS
+SELECT STATION_ID,
+       TRIM(SUBSTRING(STATION_NAME, 1, LOCATE('/', STATION_NAME) - 1)) AS OPERATOR_NAME,
+       TRIM(SUBSTRING(STATION_NAME, LOCATE('/', STATION_NAME) + 1)) AS SITE_NAME
+FROM STATION
+WHERE LOCATE('/', STATION_NAME) > 0;
+
+DELETE FROM STATION_SITE_SPLIT WHERE OPERATOR_NAME = '' OR SITE_NAME = '';
+
+INSERT INTO OPERATOR (OPERATOR_NAME)
+SELECT DISTINCT OPERATOR_NAME FROM STATION_SITE_SPLIT;
+
+INSERT INTO SITE (OPERATOR_ID, SITE_NAME)
+SELECT DISTINCT O.OPERATOR_ID, S.SITE_NAME
+FROM STATION_SITE_SPLIT S JOIN OPERATOR O ON O.OPERATOR_NAME = S.OPERATOR_NAME;
+
+MERGE INTO STATION T
+USING (SELECT S.STATION_ID, SI.SITE_ID
+       FROM STATION_SITE_SPLIT S
+       JOIN OPERATOR O ON O.OPERATOR_NAME = S.OPERATOR_NAME
+       JOIN SITE SI ON SI.OPERATOR_ID = O.OPERATOR_ID AND SI.SITE_NAME = S.SITE_NAME) U
+ON T.STATION_ID = U.STATION_ID
+WHEN MATCHED THEN UPDATE SET T.SITE_ID = U.SITE_ID;
+
+DROP TABLE STATION_SITE_SPLIT;
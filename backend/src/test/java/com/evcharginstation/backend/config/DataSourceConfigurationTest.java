@@ -0,0 +1,83 @@
+package com.evcharginstation.backend.config;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.EVStationService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(properties = "stations.datasource.replica.urls=" + DataSourceConfigurationTest.REPLICA_URL)
+class DataSourceConfigurationTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:replica-routing;DB_CLOSE_DELAY=-1";
+    private static Connection replica;
+
+    @Autowired
+    private EVStationService evStationService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeAll
+    static void createReplica() throws SQLException {
+        replica = DriverManager.getConnection(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(REPLICA_URL, "sa", "").load().migrate();
+        try (Statement statement = replica.createStatement()) {
+            statement.executeUpdate("UPDATE STATION SET STATION_NAME = 'replica' WHERE STATION_ID = 1");
+        }
+    }
+
+    @AfterAll
+    static void dropReplica() throws SQLException {
+        try (Statement statement = replica.createStatement()) {
+            statement.execute("SHUTDOWN");
+        }
+    }
+
+    @Test
+    void routesReadOnlyTransactionsToReplica() {
+        String sql = "SELECT STATION_NAME FROM STATION WHERE STATION_ID = 1";
+        TransactionTemplate readOnly = new TransactionTemplate(this.transactionManager);
+        readOnly.setReadOnly(true);
+        assertEquals(readOnly.execute(status -> this.jdbcTemplate.queryForObject(sql, String.class)), "replica");
+        TransactionTemplate readWrite = new TransactionTemplate(this.transactionManager);
+        assertEquals(readWrite.execute(status -> this.jdbcTemplate.queryForObject(sql, String.class)), "W1/W 1");
+        assertEquals(this.jdbcTemplate.queryForObject(sql, String.class), "W1/W 1");
+    }
+
+    @Test
+    void readsStationsFromReplica() {
+        assertEquals(this.evStationService.getEVStation(1L).get().getName(), "replica");
+    }
+
+    @Test
+    void laggingReplicaReadIsNotCachedAfterWrite() throws SQLException {
+        String sql = "UPDATE STATION SET STATION_PRICING = 0.01 WHERE STATION_ID = 2";
+        float before = price(this.evStationService.getSortedEVStations("asc", "STATION_PRICING"), 2);
+        this.evStationService.patchEVStation(2L, null, null, 0.01F, null, null, null, null);
+        assertEquals(price(this.evStationService.getSortedEVStations("asc", "STATION_PRICING"), 2), before);
+
+        try (Statement statement = replica.createStatement()) {
+            statement.executeUpdate(sql);
+        }
+        assertEquals(price(this.evStationService.getSortedEVStations("asc", "STATION_PRICING"), 2), 0.01F);
+    }
+
+    private static float price(List<EVStation> stations, long id) {
+        return stations.stream().filter(station -> station.getId() == id).findFirst().orElseThrow().getPrice();
+    }
+}
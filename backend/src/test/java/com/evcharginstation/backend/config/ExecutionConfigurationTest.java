@@ -0,0 +1,37 @@
+package com.evcharginstation.backend.config;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledIf;
+import org.junit.jupiter.api.condition.EnabledIf;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExecutionConfigurationTest {
+    static boolean virtualThreadsAvailable() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    @Test
+    @EnabledIf("virtualThreadsAvailable")
+    void runsTasksOnNamedVirtualThreads() throws Exception {
+        ExecutorService executor = ExecutionConfiguration.newVirtualThreadPerTaskExecutor("test-");
+        try {
+            Thread thread = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+            assertTrue((boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+            assertEquals(thread.getName(), "test-0");
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisabledIf("virtualThreadsAvailable")
+    void rejectsOlderRuntimes() {
+        assertThrows(IllegalStateException.class, () -> ExecutionConfiguration.newVirtualThreadPerTaskExecutor("test-"));
+    }
+}
@@ -0,0 +1,150 @@
+package com.evcharginstation.backend.controller;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.FilterChain;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AdmissionControlFilterTest {
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private AdmissionControlFilter filter;
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        if (filter != null) {
+            filter.destroy();
+        }
+    }
+
+    @Test
+    void rateLimitsPerClient() throws Exception {
+        filter = filter(new ClientRateLimiter(1, 2, 100), 10, Duration.ofSeconds(1));
+        assertEquals(perform(request("GET", "/api/stations", "partner")).getStatus(), 200);
+        assertEquals(perform(request("GET", "/api/stations", "partner")).getStatus(), 200);
+        MockHttpServletResponse limited = perform(request("GET", "/api/stations", "partner"));
+        assertEquals(limited.getStatus(), 429);
+        assertEquals(limited.getHeader("Retry-After"), "1");
+        assertEquals(perform(request("GET", "/api/stations", "other")).getStatus(), 200);
+        assertEquals(meterRegistry.get("stations.admission.rejected").tags("endpoint", "list", "reason", "rate-limit").counter().count(), 1);
+    }
+
+    @Test
+    void unknownApiKeysShareTheBucketOfTheirAddress() throws Exception {
+        filter = filter(new ClientRateLimiter(1, 2, 100), 10, Duration.ofSeconds(1));
+        assertEquals(perform(request("GET", "/api/stations", "invented-1")).getStatus(), 200);
+        assertEquals(perform(request("GET", "/api/stations", null)).getStatus(), 200);
+        assertEquals(perform(request("GET", "/api/stations", "invented-2")).getStatus(), 429);
+        assertEquals(perform(request("GET", "/api/stations", "partner")).getStatus(), 200);
+    }
+
+    @Test
+    void limitsConcurrencyPerEndpointClass() throws Exception {
+        filter = filter(new ClientRateLimiter(1000, 1000, 100), 1, Duration.ofSeconds(1));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> {
+            filter.doFilter(request("POST", "/api/stations", "partner"), new MockHttpServletResponse(), (request, response) -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            return null;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        MockHttpServletResponse rejected = perform(request("PATCH", "/api/stations/1", "partner"));
+        assertEquals(rejected.getStatus(), 429);
+        assertEquals(rejected.getHeader("Retry-After"), "1");
+        assertEquals(perform(request("GET", "/api/stations/images/023d2e8c4029412e1532319af131e6d0", "partner")).getStatus(), 200);
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(perform(request("DELETE", "/api/stations/1", "partner")).getStatus(), 200);
+        assertEquals(meterRegistry.get("stations.admission.rejected").tags("endpoint", "write", "reason", "concurrency").counter().count(), 1);
+    }
+
+    @Test
+    void asyncRequestsKeepTheirPermitUntilTheyComplete() throws Exception {
+        filter = filter(new ClientRateLimiter(1000, 1000, 100), 1, Duration.ofSeconds(1));
+        MockHttpServletRequest export = request("GET", "/api/stations/export", "partner");
+        export.setAsyncSupported(true);
+        filter.doFilter(export, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        assertTrue(export.isAsyncStarted());
+        assertEquals(perform(request("GET", "/api/stations/export", "partner")).getStatus(), 429);
+        export.getAsyncContext().complete();
+        assertEquals(perform(request("GET", "/api/stations/export", "partner")).getStatus(), 200);
+
+        MockHttpServletRequest events = request("GET", "/api/stations/events", "partner");
+        events.setAsyncSupported(true);
+        filter.doFilter(events, new MockHttpServletResponse(), (request, response) -> request.startAsync());
+        assertTrue(events.isAsyncStarted());
+        assertEquals(perform(request("GET", "/api/stations", "partner")).getStatus(), 200);
+    }
+
+    @Test
+    void shedsWhileQueueTimeIsAboveThreshold() throws Exception {
+        filter = filter(new ClientRateLimiter(1000, 1000, 100), 1, Duration.ofMillis(1));
+        meterRegistry.get("stations.admission.queue").tag("endpoint", "list").timer().record(Duration.ofMillis(50));
+        filter.evaluate();
+        assertTrue(filter.isShedding(AdmissionControlFilter.EndpointClass.LIST));
+        assertFalse(filter.isShedding(AdmissionControlFilter.EndpointClass.IMAGE));
+        MockHttpServletResponse shed = perform(request("GET", "/api/stations", "partner"));
+        assertEquals(shed.getStatus(), 429);
+        assertEquals(shed.getHeader("Retry-After"), "1");
+        MockHttpServletResponse image = perform(request("GET", "/api/stations/images/023d2e8c4029412e1532319af131e6d0", "partner"));
+        assertEquals(image.getStatus(), 200);
+        assertNull(image.getHeader("Retry-After"));
+    }
+
+    @Test
+    void classify() {
+        assertEquals(AdmissionControlFilter.classify(request("GET", "/api/stations", null)), AdmissionControlFilter.EndpointClass.LIST);
+        assertEquals(AdmissionControlFilter.classify(request("HEAD", "/api/stations/images/abc", null)), AdmissionControlFilter.EndpointClass.IMAGE);
+        assertEquals(AdmissionControlFilter.classify(request("POST", "/api/stations/connectors/status", null)), AdmissionControlFilter.EndpointClass.WRITE);
+    }
+
+    private AdmissionControlFilter filter(ClientRateLimiter rateLimiter, int concurrency, Duration sheddingThreshold) {
+        Map<AdmissionControlFilter.EndpointClass, Integer> limits = new EnumMap<>(AdmissionControlFilter.EndpointClass.class);
+        for (AdmissionControlFilter.EndpointClass endpointClass : AdmissionControlFilter.EndpointClass.values()) {
+            limits.put(endpointClass, concurrency);
+        }
+        return new AdmissionControlFilter(rateLimiter, Set.of("partner", "other"), limits, Duration.ofMillis(10), sheddingThreshold, Duration.ofSeconds(10), meterRegistry);
+    }
+
+    private static MockHttpServletRequest request(String method, String uri, String apiKey) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        if (apiKey != null) {
+            request.addHeader(AdmissionControlFilter.API_KEY_HEADER, apiKey);
+        }
+        return request;
+    }
+
+    private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        FilterChain chain = new MockFilterChain();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+}
@@ -0,0 +1,36 @@
+package com.evcharginstation.backend.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClientRateLimiterTest {
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(100));
+    private final ClientRateLimiter rateLimiter = new ClientRateLimiter(10, 3, 1000, clock::get);
+
+    @Test
+    void admitsBurstThenRefillsAtRate() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(rateLimiter.acquire("partner"), 0);
+        }
+        assertEquals(rateLimiter.acquire("partner"), TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(rateLimiter.acquire("other"), 0);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertEquals(rateLimiter.acquire("partner"), 0);
+        assertEquals(rateLimiter.acquire("partner"), TimeUnit.MILLISECONDS.toNanos(100));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(rateLimiter.acquire("partner"), 0);
+        }
+    }
+
+    @Test
+    void rejectsInvalidLimits() {
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(0, 1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new ClientRateLimiter(1, 0, 10));
+    }
+}
@@ -0,0 +1,93 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.persistency.jdbc.ConnectorState;
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStatus;
+import com.evcharginstation.backend.service.ConnectorStatusStore;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ConnectorStatusController.class)
+class ConnectorStatusControllerTest {
+    @MockBean
+    private ConnectorStatusStore connectorStatusStore;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void updateStatus() throws Exception {
+        when(connectorStatusStore.update(eq(1L), eq(1), eq(ConnectorStatus.CHARGING), eq(Instant.parse("2024-05-01T12:00:00Z")))).thenReturn(true);
+        when(connectorStatusStore.update(eq(9L), eq(1), eq(ConnectorStatus.AVAILABLE), any())).thenReturn(false);
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/connectors/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"stationId\":1,\"connectorId\":1,\"status\":\"CHARGING\",\"timestamp\":\"2024-05-01T12:00:00Z\"}," +
+                        "{\"stationId\":9,\"connectorId\":1,\"status\":\"AVAILABLE\"},{\"connectorId\":1,\"status\":\"AVAILABLE\"}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1))
+                .andExpect(jsonPath("$.rejected").value(2));
+    }
+
+    @Test
+    void updateStatusCapsFutureTimestamps() throws Exception {
+        Instant before = Instant.now();
+        when(connectorStatusStore.update(eq(1L), eq(1), eq(ConnectorStatus.FAULTED), any())).thenReturn(true);
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/connectors/status")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[{\"stationId\":1,\"connectorId\":1,\"status\":\"FAULTED\",\"timestamp\":\"2999-01-01T00:00:00Z\"}]"))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(1));
+        ArgumentCaptor<Instant> timestamp = ArgumentCaptor.forClass(Instant.class);
+        verify(connectorStatusStore).update(eq(1L), eq(1), eq(ConnectorStatus.FAULTED), timestamp.capture());
+        assertFalse(timestamp.getValue().isBefore(before));
+        assertFalse(timestamp.getValue().isAfter(Instant.now()));
+    }
+
+    @Test
+    void getConnectors() throws Exception {
+        when(connectorStatusStore.getConnectors(1)).thenReturn(Optional.of(Collections.singletonList(
+                new ConnectorState(1, 2, ConnectorStatus.AVAILABLE, Instant.parse("2024-05-01T12:00:00Z")))));
+        when(connectorStatusStore.getConnectors(2)).thenReturn(Optional.empty());
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/stations/1/connectors"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].connectorId").value(2))
+                .andExpect(jsonPath("$[0].status").value("AVAILABLE"));
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/stations/2/connectors"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getAvailability() throws Exception {
+        when(connectorStatusStore.getAvailabilityETag()).thenReturn("\"a-1\"");
+        when(connectorStatusStore.getAvailability(1)).thenReturn(Optional.of(new ConnectorStatusStore.Availability(2, 1, 1, 0)));
+        when(connectorStatusStore.getAvailability(2)).thenReturn(Optional.empty());
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/stations/availability?ids=1,2"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"a-1\""))
+                .andExpect(jsonPath("$.1.available").value(1))
+                .andExpect(jsonPath("$.2").doesNotExist());
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/stations/availability?ids=1,2").header("If-None-Match", "\"a-1\""))
+                .andExpect(status().isNotModified());
+        this.mockMvc.perform(MockMvcRequestBuilders.get("/api/stations/availability?ids="))
+                .andExpect(status().isBadRequest());
+    }
+}
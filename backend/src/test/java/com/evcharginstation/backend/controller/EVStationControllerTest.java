@@ -1,6 +1,13 @@
 package com.evcharginstation.backend.controller;
 
 import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.CatalogueVersion;
+import com.evcharginstation.backend.service.ConnectorStatusStore;
+import com.evcharginstation.backend.service.EVStationCache;
+import com.evcharginstation.backend.service.EVStationFields;
+import com.evcharginstation.backend.service.EVStationPage;
+import com.evcharginstation.backend.service.EVStationPriceSummary;
+import com.evcharginstation.backend.service.EVStationSearchResult;
 import com.evcharginstation.backend.service.EVStationService;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -11,39 +18,68 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMultipartHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.request.RequestPostProcessor;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(EVStationController.class)
+@Import({CatalogueResponseCache.class, EVStationAvailability.class})
 class EVStationControllerTest {
     @MockBean
     private EVStationService evStationService;
+    @MockBean
+    private CatalogueVersion catalogueVersion;
+    @MockBean
+    private EVStationCache evStationCache;
+    @MockBean
+    private ConnectorStatusStore connectorStatusStore;
     @Autowired
     private MockMvc mockMvc;
     private EVStation evStation1;
     private MockMultipartFile image;
     @BeforeEach
     void setUp() {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-" + System.nanoTime() + "\"");
         evStation1 = new EVStation();
         evStation1.setId(1);
         evStation1.setAddress("Austin Texas");
@@ -73,28 +109,123 @@ class EVStationControllerTest {
             .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
     }
 
+    @Test
+    void getEVStationsNotModified() throws Exception {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-2\"");
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?sort=asc&param=station_name")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"catalogue-2\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalogue-2\""));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/nearby?lat=30.27&lon=-97.74")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"catalogue-2\""))
+            .andExpect(status().isNotModified());
+        verify(evStationService, never()).getSortedEVStations(any(), any());
+        verify(evStationService, never()).getNearbyEVStations(any(double.class), any(double.class), any(double.class), any(int.class));
+    }
+
+    @Test
+    void getEVStationsCompressed() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getEVStations()).thenReturn(stations);
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations")
+            .header(HttpHeaders.ACCEPT_ENCODING, "br;q=1.0, gzip;q=0.8"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+            .andReturn();
+        byte[] json;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+            json = gzip.readAllBytes();
+        }
+        assertEquals(evStation1.getName(), new ObjectMapper().readTree(json).get(0).get("name").asText());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(evStation1.getName()));
+        verify(evStationService, times(1)).getEVStations();
+    }
+
     @Test
     void getImage() throws Exception {
         ByteArrayResource image = new ByteArrayResource("Dummy Image Data".getBytes());
-        when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0")).thenReturn(image);
+        when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0", null)).thenReturn(image);
         this.mockMvc.perform(MockMvcRequestBuilders
             .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
-            .contentType(MediaType.IMAGE_PNG)
-            .accept(MediaType.IMAGE_PNG))
+            .accept(MediaType.IMAGE_JPEG))
             .andDo(print())
             .andExpect(status().isOk())
-            .andExpect(content().contentType(MediaType.IMAGE_PNG))
+            .andExpect(content().contentType(MediaType.IMAGE_JPEG))
+            .andExpect(header().string("ETag", "\"023d2e8c4029412e1532319af131e6d0\""))
+            .andExpect(header().string("Accept-Ranges", "bytes"))
             .andExpect(header().exists("Content-Length"))
             .andExpect(header().longValue("Content-Length", image.contentLength()));
     }
 
+    @Test
+    void getImageConditionalAndRange() throws Exception {
+        when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0", null))
+                .thenAnswer(invocationOnMock -> new ByteArrayResource("Dummy Image Data".getBytes()));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
+            .header("If-None-Match", "\"023d2e8c4029412e1532319af131e6d0\""))
+            .andExpect(status().isNotModified());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
+            .header("Range", "bytes=0-4"))
+            .andExpect(status().isPartialContent())
+            .andExpect(header().string("Content-Range", "bytes 0-4/16"))
+            .andExpect(content().string("Dummy"));
+    }
+
+    @Test
+    void getLargeImageWithSendfile() throws Exception {
+        Path large = Files.createTempFile("station", ".jpeg");
+        try {
+            Files.write(large, new byte[64 * 1024]);
+            when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0", null)).thenReturn(new FileSystemResource(large));
+            String eTag = "\"" + large.getFileName().toString().replace(".jpeg", "") + "\"";
+            this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
+                .requestAttr(EVStationController.SENDFILE_SUPPORT, true))
+                .andExpect(status().isOk())
+                .andExpect(request().attribute(EVStationController.SENDFILE_FILENAME, large.toFile().getAbsolutePath()))
+                .andExpect(request().attribute(EVStationController.SENDFILE_END, 64L * 1024))
+                .andExpect(header().longValue("Content-Length", 64 * 1024))
+                .andExpect(header().string("ETag", eTag))
+                .andExpect(content().bytes(new byte[0]));
+            this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
+                .requestAttr(EVStationController.SENDFILE_SUPPORT, true)
+                .header("If-None-Match", eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(request().attribute(EVStationController.SENDFILE_FILENAME, (Object) null));
+            this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0")
+                .requestAttr(EVStationController.SENDFILE_SUPPORT, true)
+                .header("Range", "bytes=0-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(request().attribute(EVStationController.SENDFILE_FILENAME, (Object) null));
+        } finally {
+            Files.deleteIfExists(large);
+        }
+    }
+
     @Test
     void addEVStation() throws Exception {
         when(evStationService.addEVStation(
                 image,
                 evStation1.getName(),
                 evStation1.getPrice(),
-                evStation1.getAddress()
+                evStation1.getAddress(),
+                null,
+                null
         )).thenReturn(evStation1);
         this.mockMvc.perform(MockMvcRequestBuilders
                 .multipart("/api/stations")
@@ -115,7 +246,70 @@ class EVStationControllerTest {
             .andDo(print())
             .andExpect(status().isFound())
             .andExpect(MockMvcResultMatchers.jsonPath("$").isMap())
-            .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber());
+            .andExpect(MockMvcResultMatchers.jsonPath("$.id").isNumber())
+            .andExpect(MockMvcResultMatchers.jsonPath("$.connectors").doesNotExist());
+        when(connectorStatusStore.getAvailability(evStation1.getId()))
+                .thenReturn(Optional.of(new ConnectorStatusStore.Availability(2, 1, 1, 0)));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/show/{id}", evStation1.getId()))
+            .andExpect(status().isFound())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"0\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.name").value(evStation1.getName()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.connectors.available").value(1));
+    }
+
+    @Test
+    void getEVStationsWithAvailability() throws Exception {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-3\"");
+        when(connectorStatusStore.getAvailabilityVersion()).thenReturn(5L);
+        when(connectorStatusStore.getAvailability(evStation1.getId()))
+                .thenReturn(Optional.of(new ConnectorStatusStore.Availability(2, 1, 1, 0)));
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getEVStations()).thenReturn(stations);
+        when(evStationService.getEVStationPage(isNull(), isNull(), isNull(), eq(20), eq(4F), isNull()))
+                .thenReturn(new EVStationPage<>(stations, null));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalogue-3\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].connectors").doesNotExist());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?include=availability"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"catalogue-3-a5\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(evStation1.getName()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].connectors.total").value(2));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?minPrice=4&include=availability"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].connectors.charging").value(1));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?include=availability")
+            .header(HttpHeaders.IF_NONE_MATCH, "\"catalogue-3-a5\""))
+            .andExpect(status().isNotModified());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?include=secrets"))
+            .andExpect(status().isBadRequest());
+        // The pre-rendered body without availability is the only one that was cached.
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].connectors").doesNotExist());
+    }
+
+    @Test
+    void getNearbyEVStationsWithAvailability() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getNearbyEVStations(30.27, -97.74, 10000, 10)).thenReturn(stations);
+        when(connectorStatusStore.getAvailability(evStation1.getId()))
+                .thenReturn(Optional.of(new ConnectorStatusStore.Availability(2, 1, 1, 0)));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/nearby?lat=30.27&lon=-97.74&fields=price&include=availability"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].price").isNumber())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].address").doesNotExist())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].connectors.available").value(1));
     }
 
     @Test
@@ -124,13 +318,19 @@ class EVStationControllerTest {
                 evStation1.getId(),
                 evStation1.getName(),
                 evStation1.getPrice(),
-                evStation1.getAddress())).thenReturn(evStation1);
+                evStation1.getAddress(),
+                null,
+                null,
+                null)).thenReturn(evStation1);
         when(evStationService.updateEVStation(
                 evStation1.getId(),
                 evStation1.getName(),
                 evStation1.getPrice(),
                 evStation1.getAddress(),
-                image)).thenReturn(evStation1);
+                null,
+                null,
+                image,
+                null)).thenReturn(evStation1);
         this.mockMvc.perform(MockMvcRequestBuilders
                 .put("/api/stations/{id}/edit", evStation1.getId())
                 .param("name", evStation1.getName())
@@ -159,10 +359,45 @@ class EVStationControllerTest {
         doAnswer(invocationOnMock -> {
             assertEquals(evStation1.getId(), (Long) invocationOnMock.getArgument(0));
             return null;
-        }).when(evStationService).deleteEVStation(evStation1.getId());
+        }).when(evStationService).deleteEVStation(evStation1.getId(), null);
         this.mockMvc.perform(MockMvcRequestBuilders
                 .delete("/api/stations/delete/{id}", evStation1.getId()))
                 .andExpect(status().isNoContent());
+        doThrow(new OptimisticLockingFailureException("changed")).when(evStationService).deleteEVStation(evStation1.getId(), 1L);
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .delete("/api/stations/delete/{id}", evStation1.getId())
+                .header("If-Match", "\"1\""))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchStation() throws Exception {
+        evStation1.setVersion(3);
+        when(evStationService.patchEVStation(evStation1.getId(), 2L, null, 5.5F, null, null, null, null)).thenReturn(evStation1);
+        when(evStationService.patchEVStation(evStation1.getId(), 1L, null, 5.5F, null, null, null, null))
+                .thenThrow(new OptimisticLockingFailureException("changed"));
+        when(evStationService.patchEVStation(999L, null, null, 5.5F, null, null, null, null))
+                .thenThrow(new EmptyResultDataAccessException(1));
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .patch("/api/stations/{id}", evStation1.getId())
+                .header("If-Match", "\"2\"")
+                .param("price", "5.5"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .patch("/api/stations/{id}", evStation1.getId())
+                .header("If-Match", "\"1\"")
+                .param("price", "5.5"))
+                .andExpect(status().isPreconditionFailed());
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .patch("/api/stations/{id}", evStation1.getId())
+                .header("If-Match", "W/\"2\"")
+                .param("price", "5.5"))
+                .andExpect(status().isPreconditionFailed());
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .patch("/api/stations/{id}", 999L)
+                .param("price", "5.5"))
+                .andExpect(status().isNotFound());
     }
 
     @Test
@@ -196,4 +431,190 @@ class EVStationControllerTest {
             .andExpect(status().isOk())
             .andExpect(MockMvcResultMatchers.jsonPath("$").isArray());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getEVStationPage() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getEVStationPage("asc", "station_name", null, 1, null, null)).thenReturn(new EVStationPage<>(stations, "next-page"));
+        when(evStationService.getEVStationPage(null, null, "next-page", 20, null, null)).thenReturn(new EVStationPage<>(new ArrayList<>(), null));
+        when(evStationService.getEVStationPage(null, null, "broken", 20, null, null)).thenThrow(new IllegalArgumentException("Malformed cursor"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?sort=asc&param=station_name&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(EVStationController.NEXT_CURSOR_HEADER, "next-page"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?cursor=next-page"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(EVStationController.NEXT_CURSOR_HEADER))
+            .andExpect(MockMvcResultMatchers.jsonPath("$").isEmpty());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?cursor=broken"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void exportEVStations() throws Exception {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-1\"");
+        when(catalogueVersion.getLastModified()).thenReturn(1_000_000L);
+        doAnswer(invocationOnMock -> {
+            Consumer<EVStation> sink = invocationOnMock.getArgument(0);
+            sink.accept(evStation1);
+            sink.accept(evStation1);
+            return null;
+        }).when(evStationService).exportEVStations(any());
+        MvcResult result = this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        this.mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andExpect(header().string("ETag", "\"catalogue-1\""));
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(lines.length, 2);
+        assertEquals(new ObjectMapper().readTree(lines[0]).get("id").asLong(), evStation1.getId());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/export")
+            .header("If-None-Match", "\"catalogue-1\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getEVStationPageWithinPriceRange() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getEVStationPage(null, null, null, 20, 4F, 5F)).thenReturn(new EVStationPage<>(stations, null));
+        when(evStationService.getEVStationPage(null, null, null, 20, 5F, 4F)).thenThrow(new IllegalArgumentException("minPrice must not be greater than maxPrice"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?minPrice=4&maxPrice=5"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?minPrice=5&maxPrice=4"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getEVStationsWithFields() throws Exception {
+        EVStationFields fields = EVStationFields.parse("name,price");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(fields.project(evStation1));
+        when(evStationService.getLimitedEVStations(eq(1), any(EVStationFields.class))).thenReturn(rows);
+        when(evStationService.getEVStationPage(isNull(), isNull(), isNull(), eq(20), eq(4F), isNull(), any(EVStationFields.class)))
+                .thenReturn(new EVStationPage<>(rows, "next-page"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?limit=1&fields=name,price"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(evStation1.getId()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].name").value(evStation1.getName()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].image").doesNotExist());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?minPrice=4&fields=name,price"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(EVStationController.NEXT_CURSOR_HEADER, "next-page"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations?fields=name,secret"))
+            .andExpect(status().isBadRequest());
+        verify(evStationService, never()).getEVStations(any(EVStationFields.class));
+    }
+
+    @Test
+    void getNearbyEVStationsWithFields() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getNearbyEVStations(30.27, -97.74, 10000, 10)).thenReturn(stations);
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/nearby?lat=30.27&lon=-97.74&fields=price"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").value(evStation1.getId()))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].price").isNumber())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].address").doesNotExist());
+    }
+
+    @Test
+    void getPriceSummary() throws Exception {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-1\"");
+        when(catalogueVersion.getLastModified()).thenReturn(1_000_000L);
+        List<EVStationPriceSummary.Bucket> buckets = new ArrayList<>();
+        buckets.add(new EVStationPriceSummary.Bucket(2F, 4F, 1));
+        buckets.add(new EVStationPriceSummary.Bucket(4F, 6F, 2));
+        when(evStationService.getPriceSummary(2, null, null)).thenReturn(new EVStationPriceSummary(3, 2F, 6F, 4.5D, buckets));
+        when(evStationService.getPriceSummary(0, null, null)).thenThrow(new IllegalArgumentException("Bucket count must be between 1 and 100"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/pricing?buckets=2"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", "\"catalogue-1\""))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.count").value(3))
+            .andExpect(MockMvcResultMatchers.jsonPath("$.buckets[1].count").value(2));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/pricing?buckets=2")
+            .header("If-None-Match", "\"catalogue-1\""))
+            .andExpect(status().isNotModified());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/pricing?buckets=0"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getNearbyEVStations() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.getNearbyEVStations(30.27, -97.74, 10000, 10)).thenReturn(stations);
+        when(evStationService.getNearbyEVStations(95, -97.74, 10000, 10)).thenThrow(new IllegalArgumentException("Coordinates out of range"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/nearby?lat=30.27&lon=-97.74"))
+            .andExpect(status().isOk())
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/nearby?lat=95&lon=-97.74"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void searchEVStations() throws Exception {
+        List<EVStation> stations = new ArrayList<>();
+        stations.add(evStation1);
+        when(evStationService.searchEVStations("domain dr", 0, 20)).thenReturn(new EVStationSearchResult(stations, 7));
+        when(evStationService.searchEVStations("domain", 0, 1000)).thenThrow(new IllegalArgumentException("Page or page size out of range"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/search?q=domain dr"))
+            .andExpect(status().isOk())
+            .andExpect(header().string(EVStationController.TOTAL_COUNT_HEADER, "7"))
+            .andExpect(MockMvcResultMatchers.jsonPath("$[0].id").isNumber());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/search?q=domain&size=1000"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getImageVariant() throws Exception {
+        Path thumbnail = Files.createTempFile("023d2e8c4029412e1532319af131e6d0_thumb", ".jpeg");
+        try {
+            when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0", "thumb")).thenReturn(new FileSystemResource(thumbnail));
+            when(evStationService.getImage("023d2e8c4029412e1532319af131e6d0", "huge")).thenThrow(new IllegalArgumentException("Unknown image size huge"));
+            this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0?size=thumb"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"" + thumbnail.getFileName().toString().replace(".jpeg", "") + "\""));
+            this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0?size=huge"))
+                .andExpect(status().isBadRequest());
+        } finally {
+            Files.deleteIfExists(thumbnail);
+        }
+    }
+
+    @Test
+    void getImageRedirectsToImageStore() throws Exception {
+        URI presigned = URI.create("https://images.example.com/stations/023d2e8c4029412e1532319af131e6d0.jpeg?X-Amz-Signature=abc");
+        when(evStationService.getImageRedirect("023d2e8c4029412e1532319af131e6d0", null)).thenReturn(Optional.of(presigned));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/stations/images/023d2e8c4029412e1532319af131e6d0"))
+            .andExpect(status().isTemporaryRedirect())
+            .andExpect(header().string("Location", presigned.toString()))
+            .andExpect(header().string("Cache-Control", "no-store"));
+        verify(evStationService, never()).getImage(any(), any());
+    }
+}
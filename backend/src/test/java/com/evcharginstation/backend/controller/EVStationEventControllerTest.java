@@ -0,0 +1,38 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.EVStationEventStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EVStationEventController.class)
+class EVStationEventControllerTest {
+    @MockBean
+    private EVStationEventStream evStationEventStream;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void streamEvents() throws Exception {
+        when(evStationEventStream.subscribe("abc-41")).thenReturn(new SseEmitter());
+        when(evStationEventStream.subscribe(null)).thenThrow(new IllegalStateException("Too many event stream subscribers"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/events")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .header(EVStationEventController.LAST_EVENT_ID_HEADER, "abc-41"))
+                .andExpect(request().asyncStarted());
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .get("/api/stations/events")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,60 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.service.EVStationImportResult;
+import com.evcharginstation.backend.service.EVStationImportService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(EVStationImportController.class)
+class EVStationImportControllerTest {
+    @MockBean
+    private EVStationImportService evStationImportService;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void importStations() throws Exception {
+        when(evStationImportService.importStations(any(), eq(EVStationImportService.Format.CSV))).thenReturn(new EVStationImportResult());
+        when(evStationImportService.importStations(any(), eq(EVStationImportService.Format.NDJSON))).thenThrow(new IllegalStateException());
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/import")
+                .contentType("text/csv")
+                .content("name,price,address,image\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(0));
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content("{}\n"))
+                .andExpect(status().isBadRequest());
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/import")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+                .andExpect(status().isUnsupportedMediaType());
+    }
+
+    @Test
+    void importImages() throws Exception {
+        when(evStationImportService.importImages(any())).thenReturn(Collections.singletonMap("a.jpeg", "/api/stations/images/023d2e8c4029412e1532319af131e6d0"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+                .post("/api/stations/import/images")
+                .contentType("application/zip")
+                .content(new byte[0]))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['a.jpeg']").value("/api/stations/images/023d2e8c4029412e1532319af131e6d0"));
+    }
+}
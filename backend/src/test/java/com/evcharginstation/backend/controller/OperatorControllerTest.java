@@ -0,0 +1,91 @@
+package com.evcharginstation.backend.controller;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.CatalogueVersion;
+import com.evcharginstation.backend.service.OperatorService;
+import com.evcharginstation.backend.service.OperatorStations;
+import com.evcharginstation.backend.service.OperatorSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(OperatorController.class)
+class OperatorControllerTest {
+    @MockBean
+    private OperatorService operatorService;
+    @MockBean
+    private CatalogueVersion catalogueVersion;
+    @Autowired
+    private MockMvc mockMvc;
+    private OperatorSummary aisd;
+
+    @BeforeEach
+    void setUp() {
+        when(catalogueVersion.getETag()).thenReturn("\"catalogue-1\"");
+        aisd = new OperatorSummary(3, "AISD", 2, 3, 4.17F, 5.17, 6.17F);
+    }
+
+    @Test
+    void getOperators() throws Exception {
+        when(operatorService.getOperators()).thenReturn(List.of(aisd));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].name").value("AISD"))
+            .andExpect(jsonPath("$[0].stations").value(3))
+            .andExpect(jsonPath("$[0].averagePrice").value(5.17));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators")
+            .header("If-None-Match", "\"catalogue-1\""))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void getOperator() throws Exception {
+        when(operatorService.getOperator(3)).thenReturn(Optional.of(aisd));
+        when(operatorService.getOperator(4)).thenReturn(Optional.empty());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators/3"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sites").value(2));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators/4"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getOperatorStations() throws Exception {
+        EVStation station = new EVStation();
+        station.setId(18);
+        station.setName("AISD / AKINS1");
+        OperatorStations page = new OperatorStations(3, "AISD",
+                List.of(new OperatorStations.SiteStations(5, "AKINS1", List.of(station))), 18L);
+        when(operatorService.getOperatorStations(3, 2L, 1)).thenReturn(Optional.of(page));
+        when(operatorService.getOperatorStations(4, null, 1000)).thenReturn(Optional.empty());
+        when(operatorService.getOperatorStations(3, null, 20000)).thenThrow(new IllegalArgumentException("Page size out of range"));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators/3/stations?after=2&size=1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.sites[0].name").value("AKINS1"))
+            .andExpect(jsonPath("$.sites[0].stations[0].id").value(18))
+            .andExpect(jsonPath("$.sites[0].stations[0].site").doesNotExist())
+            .andExpect(jsonPath("$.next").value(18));
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators/4/stations"))
+            .andExpect(status().isNotFound());
+        this.mockMvc.perform(MockMvcRequestBuilders
+            .get("/api/operators/3/stations?size=20000"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,47 @@
+package com.evcharginstation.backend.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StationMetricsTest {
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StationMetrics stationMetrics = new StationMetrics(meterRegistry);
+
+    @Test
+    void imageBytes() {
+        stationMetrics.imageRead(100);
+        stationMetrics.imageRead(50);
+        stationMetrics.imageWritten(10);
+        assertEquals(meterRegistry.get("stations.images.bytes").tag("direction", "read").counter().count(), 150);
+        assertEquals(meterRegistry.get("stations.images.bytes").tag("direction", "written").counter().count(), 10);
+    }
+
+    @Test
+    void repositoryRows() throws NoSuchMethodException {
+        stationMetrics.repositoryRows(List.class, List.class.getMethod("size"), 3);
+        stationMetrics.repositoryRows(List.class, List.class.getMethod("size"), 5);
+        DistributionSummary rows = meterRegistry.get("stations.repository.rows").tag("method", "size").summary();
+        assertEquals(rows.count(), 2);
+        assertEquals(rows.totalAmount(), 8);
+    }
+
+    @Test
+    void countsRowsOfQueryResults() {
+        assertEquals(RepositoryRowCounter.rows(Arrays.asList(1, 2, 3)), 3);
+        assertEquals(RepositoryRowCounter.rows(new PageImpl<>(Arrays.asList(1, 2))), 2);
+        assertEquals(RepositoryRowCounter.rows(Optional.empty()), 0);
+        assertEquals(RepositoryRowCounter.rows(new Object()), 1);
+        assertEquals(RepositoryRowCounter.rows(null), 0);
+        assertEquals(RepositoryRowCounter.rows(42L), -1);
+        assertEquals(RepositoryRowCounter.rows(Stream.empty()), -1);
+    }
+}
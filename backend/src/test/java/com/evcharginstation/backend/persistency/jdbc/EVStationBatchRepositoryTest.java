@@ -0,0 +1,55 @@
+package com.evcharginstation.backend.persistency.jdbc;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class EVStationBatchRepositoryTest {
+    private static final long STATION_ID = 900_001;
+
+    @Autowired
+    private EVStationBatchRepository evStationBatchRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM STATION WHERE STATION_ID = ?", STATION_ID);
+    }
+
+    @Test
+    void updateAllNeverRollsBackANewerVersion() {
+        jdbcTemplate.update("INSERT INTO STATION (STATION_ID, STATION_NAME, STATION_IMAGE, STATION_PRICING, STATION_VERSION) " +
+                "VALUES (?, 'Current', '/api/stations/images/023d2e8c4029412e1532319af131e6d0', 4.17, 5)", STATION_ID);
+
+        int[][] stale = evStationBatchRepository.updateAll(List.of(station("Replayed", 5)), station -> null, 10);
+        assertEquals(0, stale[0][0]);
+        assertEquals("Current", name());
+
+        int[][] newer = evStationBatchRepository.updateAll(List.of(station("Edited", 6)), station -> null, 10);
+        assertEquals(1, newer[0][0]);
+        assertEquals("Edited", name());
+    }
+
+    private static EVStation station(String name, long version) {
+        EVStation station = new EVStation();
+        station.setId(STATION_ID);
+        station.setName(name);
+        station.setPrice(4.17F);
+        station.setImage("/api/stations/images/023d2e8c4029412e1532319af131e6d0");
+        station.setVersion(version);
+        return station;
+    }
+
+    private String name() {
+        return jdbcTemplate.queryForObject("SELECT STATION_NAME FROM STATION WHERE STATION_ID = ?", String.class, STATION_ID);
+    }
+}
@@ -0,0 +1,115 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.ConnectorState;
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStateRepository;
+import com.evcharginstation.backend.persistency.jdbc.ConnectorStatus;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConnectorStatusStoreTest {
+    private ConnectorStateRepository connectorStateRepository;
+    private ConnectorStatusStore store;
+    private final Instant now = Instant.parse("2024-05-01T12:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        EVStationRepository evStationRepository = mock(EVStationRepository.class);
+        connectorStateRepository = mock(ConnectorStateRepository.class);
+        when(evStationRepository.findAllIds()).thenReturn(Arrays.asList(1L, 2L));
+        when(connectorStateRepository.findAll()).thenReturn(Collections.singletonList(
+                new ConnectorState(2, 1, ConnectorStatus.FAULTED, now.minusSeconds(60))));
+        store = new ConnectorStatusStore(evStationRepository, connectorStateRepository, mock(PlatformTransactionManager.class),
+                Duration.ofHours(1), 100);
+        store.load();
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void changesAreCoalescedIntoOneBatch() {
+        for (int i = 0; i < 1000; i++) {
+            ConnectorStatus status = i % 2 == 0 ? ConnectorStatus.CHARGING : ConnectorStatus.AVAILABLE;
+            assertTrue(store.update(1, 1, status, now.plusMillis(i)));
+        }
+        store.update(1, 2, ConnectorStatus.CHARGING, now);
+        long version = store.getAvailabilityVersion();
+        String eTag = store.getAvailabilityETag();
+        store.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConnectorState>> batch = ArgumentCaptor.forClass(List.class);
+        verify(connectorStateRepository).saveAll(batch.capture(), anyInt());
+        assertEquals(2, batch.getValue().size());
+        ConnectorState first = batch.getValue().stream().filter(state -> state.getConnectorId() == 1).findFirst().orElseThrow();
+        assertEquals(ConnectorStatus.AVAILABLE, first.getStatus());
+        assertEquals(now.plusMillis(999), first.getUpdatedAt());
+        assertEquals(version + 1, store.getAvailabilityVersion());
+        assertNotEquals(eTag, store.getAvailabilityETag());
+
+        store.flush();
+        verify(connectorStateRepository, times(1)).saveAll(anyList(), anyInt());
+    }
+
+    @Test
+    void availabilityIgnoresStaleAndUnknownHeartbeats() {
+        assertEquals(1, store.getAvailability(2).orElseThrow().getFaulted());
+        assertFalse(store.getAvailability(1).isPresent());
+        store.update(1, 1, ConnectorStatus.AVAILABLE, now);
+        store.update(1, 2, ConnectorStatus.AVAILABLE, now);
+        store.update(1, 2, ConnectorStatus.FAULTED, now.minusSeconds(5));
+        ConnectorStatusStore.Availability availability = store.getAvailability(1).orElseThrow();
+        assertEquals(2, availability.getTotal());
+        assertEquals(2, availability.getAvailable());
+        assertFalse(store.update(3, 1, ConnectorStatus.AVAILABLE, now));
+        assertFalse(store.update(1, ConnectorStatusStore.MAX_CONNECTOR_ID + 1, ConnectorStatus.AVAILABLE, now));
+
+        store.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.CREATED, 3, null));
+        assertTrue(store.update(3, 1, ConnectorStatus.AVAILABLE, now));
+        store.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, 1, null));
+        assertFalse(store.getConnectors(1).isPresent());
+        store.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ConnectorState>> batch = ArgumentCaptor.forClass(List.class);
+        verify(connectorStateRepository).saveAll(batch.capture(), anyInt());
+        assertEquals(1, batch.getValue().size());
+        assertEquals(3, batch.getValue().get(0).getStationId());
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        doThrow(new QueryTimeoutException("timeout")).doNothing().when(connectorStateRepository).saveAll(anyList(), anyInt());
+        store.update(1, 1, ConnectorStatus.CHARGING, now);
+        store.flush();
+        store.flush();
+        verify(connectorStateRepository, times(2)).saveAll(anyList(), anyInt());
+        store.flush();
+        verify(connectorStateRepository, times(2)).saveAll(anyList(), anyInt());
+    }
+}
@@ -0,0 +1,83 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EVStationCacheTest {
+    private EVStationCache evStationCache;
+    private EVStation evStation;
+
+    @BeforeEach
+    void setUp() {
+        evStationCache = new EVStationCache(100, Duration.ofMinutes(1), 1000, "", Duration.ZERO);
+        evStation = new EVStation();
+        evStation.setId(101);
+        evStation.setName("EV Station 1");
+        evStation.setPrice(4.65F);
+    }
+
+    @Test
+    void getStationRecordsHitsAndMisses() {
+        evStationCache.getStation(evStation.getId(), id -> Optional.of(evStation));
+        Optional<EVStation> cached = evStationCache.getStation(evStation.getId(), id -> Optional.empty());
+        assertTrue(cached.isPresent());
+        assertEquals(evStationCache.stationStats().hitCount(), 1);
+        assertEquals(evStationCache.stationStats().missCount(), 1);
+    }
+
+    @Test
+    void updateRefreshesStationAndDropsViews() {
+        evStationCache.getStation(evStation.getId(), id -> Optional.of(evStation));
+        List<EVStation> view = new ArrayList<>();
+        view.add(evStation);
+        evStationCache.getView("price:asc", () -> view);
+        EVStation repriced = new EVStation();
+        repriced.setId(evStation.getId());
+        repriced.setPrice(9.99F);
+        evStationCache.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.UPDATED, repriced.getId(), repriced));
+        assertEquals(evStationCache.getStation(evStation.getId(), id -> Optional.of(evStation)).get().getPrice(), 9.99F);
+        assertTrue(evStationCache.peekView("price:asc").isEmpty());
+    }
+
+    @Test
+    void loadRacingWithWriteIsNotCached() {
+        evStationCache.getStation(evStation.getId(), id -> {
+            evStationCache.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, id, null));
+            return Optional.of(evStation);
+        });
+        Optional<EVStation> reloaded = evStationCache.getStation(evStation.getId(), id -> Optional.empty());
+        assertTrue(reloaded.isEmpty());
+    }
+
+    @Test
+    void replicaReadsRightAfterAWriteAreNotKept() {
+        EVStationCache replicated = new EVStationCache(100, Duration.ofMinutes(1), 1000, "jdbc:h2:mem:replica", Duration.ofMinutes(1));
+        replicated.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, 7L, null));
+        assertTrue(replicated.replicaMayLag());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        try {
+            replicated.getView("price:asc", () -> List.of(evStation));
+            replicated.getStation(evStation.getId(), id -> Optional.of(evStation));
+        } finally {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        }
+        assertTrue(replicated.peekView("price:asc").isEmpty());
+        assertTrue(replicated.getStation(evStation.getId(), id -> Optional.empty()).isEmpty());
+
+        replicated.getView("price:asc", () -> List.of(evStation));
+        assertTrue(replicated.peekView("price:asc").isPresent());
+        assertFalse(evStationCache.replicaMayLag());
+    }
+}
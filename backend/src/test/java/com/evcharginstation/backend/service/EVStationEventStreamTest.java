@@ -0,0 +1,199 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.event.EVStationsImportedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EVStationEventStreamTest {
+    private EVStationEventStream stream;
+
+    @BeforeEach
+    void setUp() {
+        stream = new EVStationEventStream(new ObjectMapper(), 4, Duration.ofMinutes(1), Duration.ofHours(1), 3, 8, 2, Duration.ofMinutes(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void subscribersReceiveChangesInOrder() throws Exception {
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        stream.subscribe(first, null);
+        stream.subscribe(second, null);
+        stream.subscribe(new RecordingEmitter(), null);
+        publish(EVStationChangedEvent.Type.CREATED, 1);
+        publish(EVStationChangedEvent.Type.DELETED, 1);
+        for (RecordingEmitter emitter : new RecordingEmitter[]{first, second}) {
+            String created = emitter.next();
+            assertTrue(created.contains("event:station"));
+            assertTrue(created.contains("\"sequence\":1,\"type\":\"CREATED\",\"id\":1"));
+            assertTrue(emitter.next().contains("\"sequence\":2,\"type\":\"DELETED\",\"id\":1,\"station\":null"));
+        }
+        assertThrows(IllegalStateException.class, () -> stream.subscribe(new RecordingEmitter(), null));
+    }
+
+    @Test
+    void resumesFromLastEventId() throws Exception {
+        RecordingEmitter live = new RecordingEmitter();
+        stream.subscribe(live, null);
+        publish(EVStationChangedEvent.Type.CREATED, 1);
+        publish(EVStationChangedEvent.Type.CREATED, 2);
+        publish(EVStationChangedEvent.Type.UPDATED, 1);
+        live.next();
+        String lastSeen = eventId(live.next());
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        stream.subscribe(resumed, lastSeen);
+        assertTrue(resumed.next().contains("\"sequence\":3,\"type\":\"UPDATED\""));
+        publish(EVStationChangedEvent.Type.DELETED, 2);
+        assertTrue(resumed.next().contains("\"sequence\":4,\"type\":\"DELETED\""));
+        assertNull(resumed.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void resetsWhenTheBufferHasMovedOn() throws Exception {
+        RecordingEmitter live = new RecordingEmitter();
+        stream.subscribe(live, null);
+        for (int i = 1; i <= 6; i++) {
+            publish(EVStationChangedEvent.Type.CREATED, i);
+        }
+        String first = eventId(live.next());
+        RecordingEmitter tooOld = new RecordingEmitter();
+        stream.subscribe(tooOld, first);
+        String reset = tooOld.next();
+        assertTrue(reset.contains("event:reset"));
+        assertTrue(reset.contains("data:6"));
+
+        RecordingEmitter otherRun = new RecordingEmitter();
+        stream.subscribe(otherRun, "0-5");
+        assertTrue(otherRun.next().contains("event:reset"));
+    }
+
+    @Test
+    void importedChunksAreOneEvent() throws Exception {
+        RecordingEmitter live = new RecordingEmitter();
+        stream.subscribe(live, null);
+        EVStation first = new EVStation();
+        first.setId(7L);
+        EVStation second = new EVStation();
+        second.setId(8L);
+        stream.onStationsImported(new EVStationsImportedEvent(List.of(first, second)));
+        assertTrue(live.next().contains("\"sequence\":1,\"type\":\"IMPORTED\",\"ids\":[7,8]"));
+        assertNull(live.events.poll(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void dropsSubscribersThatFallBehindWithoutStallingOthers() throws Exception {
+        CountDownLatch stalled = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter() {
+            @Override
+            public void send(SseEventBuilder builder) throws IOException {
+                try {
+                    stalled.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        RecordingEmitter fast = new RecordingEmitter();
+        stream.subscribe(slow, null);
+        stream.subscribe(fast, null);
+        try {
+            for (int i = 1; i <= 20; i++) {
+                publish(EVStationChangedEvent.Type.CREATED, i);
+                assertTrue(fast.next().contains("\"sequence\":" + i + ","));
+            }
+            assertEquals(1, stream.getSubscriberCount());
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    @Test
+    void stalledSubscribersDoNotHoldUpOthers() throws Exception {
+        stream.shutdown();
+        stream = new EVStationEventStream(new ObjectMapper(), 4, Duration.ofMinutes(1), Duration.ofHours(1), 10, 8, 2,
+                Duration.ofMillis(200));
+        CountDownLatch stalled = new CountDownLatch(1);
+        // More stalled clients than sender threads, and they stay connected throughout.
+        for (int i = 0; i < 3; i++) {
+            stream.subscribe(new RecordingEmitter() {
+                @Override
+                public void send(SseEventBuilder builder) throws IOException {
+                    try {
+                        stalled.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }, null);
+        }
+        RecordingEmitter live = new RecordingEmitter();
+        stream.subscribe(live, null);
+        try {
+            for (int i = 1; i <= 3; i++) {
+                publish(EVStationChangedEvent.Type.CREATED, i);
+                assertTrue(live.next().contains("\"sequence\":" + i + ","));
+            }
+            for (int attempt = 0; attempt < 100 && stream.getSubscriberCount() > 1; attempt++) {
+                Thread.sleep(50);
+            }
+            assertEquals(1, stream.getSubscriberCount());
+        } finally {
+            stalled.countDown();
+        }
+    }
+
+    private void publish(EVStationChangedEvent.Type type, long id) {
+        EVStation station = null;
+        if (type != EVStationChangedEvent.Type.DELETED) {
+            station = new EVStation();
+            station.setId(id);
+            station.setName("Station " + id);
+        }
+        stream.onStationChanged(new EVStationChangedEvent(type, id, station));
+    }
+
+    private static String eventId(String event) {
+        return event.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+    }
+
+    private static class RecordingEmitter extends SseEmitter {
+        private final BlockingQueue<String> events = new LinkedBlockingQueue<>();
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            events.add(builder.build().stream()
+                    .map(data -> String.valueOf(data.getData()))
+                    .collect(Collectors.joining()));
+        }
+
+        String next() throws InterruptedException {
+            String event = events.poll(5, TimeUnit.SECONDS);
+            assertTrue(event != null, "expected an event");
+            return event;
+        }
+    }
+}
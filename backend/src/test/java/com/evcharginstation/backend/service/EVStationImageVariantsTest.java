@@ -0,0 +1,99 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.service.image.LocalImageStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EVStationImageVariantsTest {
+    private static final String IMAGE_NAME = "5478611f53b3a12dbe03f4e2d816247b";
+
+    @TempDir
+    Path imageDirectory;
+    private LocalImageStore imageStore;
+    private EVStationImageVariants evStationImageVariants;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageStore = new LocalImageStore(imageDirectory);
+        evStationImageVariants = new EVStationImageVariants(imageStore, 1, 4, 10_000_000);
+        Path stagingFile = imageStore.createStagingFile();
+        ImageIO.write(new BufferedImage(1200, 800, BufferedImage.TYPE_INT_RGB), "jpeg", stagingFile.toFile());
+        imageStore.put(EVStationImageVariants.originalKey(IMAGE_NAME), stagingFile);
+    }
+
+    @AfterEach
+    void tearDown() {
+        evStationImageVariants.shutdown();
+    }
+
+    @Test
+    void createVariantsBoundsLongestSide() throws IOException {
+        evStationImageVariants.createVariants(IMAGE_NAME);
+        BufferedImage thumbnail = read(EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.THUMB));
+        BufferedImage medium = read(EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.MEDIUM));
+        assertEquals(thumbnail.getWidth(), 160);
+        assertEquals(thumbnail.getHeight(), 107);
+        assertEquals(medium.getWidth(), 640);
+    }
+
+    @Test
+    void createVariantsSkipsOriginalsAboveThePixelLimit() throws IOException {
+        EVStationImageVariants limited = new EVStationImageVariants(imageStore, 1, 4, 1200 * 800 - 1);
+        try {
+            limited.createVariants(IMAGE_NAME);
+        } finally {
+            limited.shutdown();
+        }
+        assertFalse(imageStore.exists(EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.THUMB)));
+        assertFalse(imageStore.exists(EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.MEDIUM)));
+    }
+
+    @Test
+    void createVariantsSubsamplesLargeOriginals() throws IOException {
+        Path stagingFile = imageStore.createStagingFile();
+        ImageIO.write(new BufferedImage(4000, 2000, BufferedImage.TYPE_INT_RGB), "jpeg", stagingFile.toFile());
+        imageStore.put(EVStationImageVariants.originalKey(IMAGE_NAME), stagingFile);
+        evStationImageVariants.createVariants(IMAGE_NAME);
+        BufferedImage medium = read(EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.MEDIUM));
+        assertEquals(medium.getWidth(), 640);
+        assertEquals(medium.getHeight(), 320);
+    }
+
+    @Test
+    void scheduleRunsInBackgroundAndDeleteRemovesVariants() throws Exception {
+        evStationImageVariants.schedule(IMAGE_NAME);
+        String thumbnail = EVStationImageVariants.variantKey(IMAGE_NAME, EVStationImageVariants.Size.THUMB);
+        for (int attempt = 0; attempt < 100 && !imageStore.exists(thumbnail); attempt++) {
+            Thread.sleep(50);
+        }
+        assertTrue(imageStore.exists(thumbnail));
+        evStationImageVariants.delete(IMAGE_NAME);
+        assertFalse(imageStore.exists(thumbnail));
+        assertTrue(imageStore.exists(EVStationImageVariants.originalKey(IMAGE_NAME)));
+    }
+
+    @Test
+    void parseSize() {
+        assertTrue(EVStationImageVariants.Size.parse(null).isEmpty());
+        assertTrue(EVStationImageVariants.Size.parse("original").isEmpty());
+        assertEquals(EVStationImageVariants.Size.parse("THUMB").get(), EVStationImageVariants.Size.THUMB);
+    }
+
+    private BufferedImage read(String key) throws IOException {
+        try (InputStream content = imageStore.open(key).get().getInputStream()) {
+            return ImageIO.read(content);
+        }
+    }
+}
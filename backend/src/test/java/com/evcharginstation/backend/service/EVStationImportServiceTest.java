@@ -0,0 +1,102 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@TestPropertySource(properties = "stations.import.chunk-size=2")
+class EVStationImportServiceTest {
+    private static final String IMAGE = "/api/stations/images/023d2e8c4029412e1532319af131e6d0";
+
+    @Autowired
+    private EVStationImportService evStationImportService;
+    @Autowired
+    private EVStationRepository evStationRepository;
+    @Autowired
+    private CatalogueVersion catalogueVersion;
+    @Autowired
+    private EVStationSearchIndex evStationSearchIndex;
+    private final List<Long> importedIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        evStationRepository.deleteAllById(importedIds);
+    }
+
+    @Test
+    void importCsv() throws IOException {
+        long version = catalogueVersion.getVersion();
+        String csv = "name,price,address,image,latitude,longitude\n"
+                + "\"OPERATOR / SITE, 1\",4.25,1 Main St,023d2e8c4029412e1532319af131e6d0,30.27,-97.74\n"
+                + "Second,abc,2 Main St," + IMAGE + ",,\n"
+                + "Third,5.5,3 Main St," + IMAGE + ",,\n"
+                + "Fourth,6.5,,ffffffffffffffffffffffffffffffff,,\n"
+                + "Fifth,7.5,5 Main St," + IMAGE + ",,\n";
+        EVStationImportResult result = evStationImportService.importStations(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), EVStationImportService.Format.CSV);
+        result.getRows().stream().filter(row -> row.getId() != null).forEach(row -> importedIds.add(row.getId()));
+        assertEquals(result.getCreated(), 3);
+        assertEquals(result.getRejected(), 2);
+        // Two chunks of created rows, one catalogue change each.
+        assertEquals(catalogueVersion.getVersion(), version + 2);
+        assertTrue(evStationSearchIndex.search("Fifth", 0, 10).getIds().contains(result.getRows().get(4).getId()));
+        assertEquals(result.getRows().get(1).getLine(), 3);
+        assertEquals(result.getRows().get(1).getStatus(), EVStationImportResult.Status.REJECTED);
+        Optional<EVStation> first = evStationRepository.findById(result.getRows().get(0).getId());
+        assertTrue(first.isPresent());
+        assertEquals(first.get().getName(), "OPERATOR / SITE, 1");
+        assertEquals(first.get().getLatitude(), 30.27);
+        assertNotNull(first.get().getSite());
+    }
+
+    @Test
+    void importNdjson() throws IOException {
+        String ndjson = "{\"name\":\"One\",\"price\":4.5,\"address\":\"1 Main St\",\"image\":\"" + IMAGE + "\"}\n"
+                + "not json\n"
+                + "{\"name\":\"Two\",\"price\":5,\"image\":\"" + IMAGE + "\",\"latitude\":30.1}\n";
+        EVStationImportResult result = evStationImportService.importStations(
+                new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), EVStationImportService.Format.NDJSON);
+        result.getRows().stream().filter(row -> row.getId() != null).forEach(row -> importedIds.add(row.getId()));
+        assertEquals(result.getCreated(), 1);
+        assertEquals(result.getRejected(), 2);
+    }
+
+    @Test
+    void importImages() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        byte[] image = getClass().getResourceAsStream("/static/images/023d2e8c4029412e1532319af131e6d0.jpeg").readAllBytes();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            zip.putNextEntry(new ZipEntry("photos/central.jpeg"));
+            zip.write(image);
+            zip.closeEntry();
+        }
+        Map<String, String> images = evStationImportService.importImages(new ByteArrayInputStream(archive.toByteArray()));
+        assertEquals(images.get("photos/central.jpeg"), IMAGE);
+    }
+
+    @Test
+    void parseCsvLine() {
+        assertArrayEquals(EVStationImportService.parseCsvLine("a,\"b, \"\"c\"\"\",,d"), new String[]{"a", "b, \"c\"", "", "d"});
+    }
+}
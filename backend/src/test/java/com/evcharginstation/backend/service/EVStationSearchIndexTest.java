@@ -0,0 +1,65 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class EVStationSearchIndexTest {
+    private EVStationSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new EVStationSearchIndex(mock(EVStationRepository.class));
+        add(1, "DOMAIN. / DOMAIN TW 02", "10721 Domain Drive Austin Texas 78758");
+        add(2, "GPT / GABLES 1", "111 Sandra Muraida Way Austin Texas 78703");
+        add(3, "RPP GARAGE / GARAGE 2", "12455 Research Park Loop Austin Texas 78727");
+        add(4, "Café Garcia", "1 Domain Square Austin Texas 78758");
+    }
+
+    @Test
+    void matchesPrefixesOfEveryToken() {
+        assertEquals(index.search("gar", 0, 10).getIds(), List.of(3L, 4L));
+        assertEquals(index.search("garage loop", 0, 10).getIds(), List.of(3L));
+        assertEquals(index.search("garage sandra", 0, 10).getIds(), List.of());
+        assertEquals(index.search("cafe", 0, 10).getIds(), List.of(4L));
+    }
+
+    @Test
+    void ranksNameMatchesAboveAddressMatches() {
+        EVStationSearchIndex.Hits hits = index.search("domain", 0, 10);
+        assertEquals(hits.getIds(), List.of(1L, 4L));
+        assertEquals(hits.getTotal(), 2);
+        assertEquals(index.search("domain", 1, 1).getIds(), List.of(4L));
+    }
+
+    @Test
+    void followsUpdatesAndDeletes() {
+        add(2, "GPT / GARDENS 1", "111 Sandra Muraida Way Austin Texas 78703");
+        assertEquals(index.search("gables", 0, 10).getIds(), List.of());
+        assertEquals(index.search("gardens", 0, 10).getIds(), List.of(2L));
+        index.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, 3, null));
+        assertEquals(index.search("garage", 0, 10).getIds(), List.of());
+        assertEquals(index.size(), 3);
+    }
+
+    @Test
+    void tokenize() {
+        assertArrayEquals(EVStationSearchIndex.tokenize("PIE AE / Café #2, café"), new String[]{"pie", "ae", "cafe", "2"});
+    }
+
+    private void add(long id, String name, String address) {
+        EVStation station = new EVStation();
+        station.setId(id);
+        station.setName(name);
+        station.setAddress(address);
+        index.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.CREATED, id, station));
+    }
+}
@@ -1,25 +1,58 @@
 package com.evcharginstation.backend.service;
 
+import com.evcharginstation.backend.metrics.StationMetrics;
 import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceBucket;
+import com.evcharginstation.backend.persistency.jpa.projection.EVStationPriceStatistics;
 import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import com.evcharginstation.backend.service.image.LocalImageStore;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileSystemUtils;
 
+import javax.persistence.EntityManager;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyFloat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -27,6 +60,27 @@ class EVStationServiceTest {
 
     @Mock
     private EVStationRepository evStationRepository;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private EVStationSpatialIndex evStationSpatialIndex;
+    @Mock
+    private EVStationImageVariants evStationImageVariants;
+    private final Path imageDirectory = createImageDirectory();
+    @Spy
+    private LocalImageStore imageStore = createImageStore(imageDirectory);
+    @Mock
+    private EVStationSearchIndex evStationSearchIndex;
+    @Mock
+    private StationMetrics stationMetrics;
+    @Mock
+    private EVStationWriteBehind evStationWriteBehind;
+    @Mock
+    private EVStationSites evStationSites;
+    @Spy
+    private EVStationCache evStationCache = new EVStationCache(100, Duration.ofMinutes(1), 1000, "", Duration.ZERO);
     @InjectMocks
     private EVStationService evStationService;
     private EVStation evStation1;
@@ -49,7 +103,28 @@ class EVStationServiceTest {
     }
 
     @AfterEach
-    void tearDown() {
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(imageDirectory);
+    }
+
+    private static Path createImageDirectory() {
+        try {
+            return Files.createTempDirectory("station-images");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static LocalImageStore createImageStore(Path directory) {
+        try (InputStream image = EVStationServiceTest.class.getResourceAsStream("/static/images/023d2e8c4029412e1532319af131e6d0.jpeg")) {
+            LocalImageStore imageStore = new LocalImageStore(directory);
+            Path stagingFile = imageStore.createStagingFile();
+            Files.copy(image, stagingFile, StandardCopyOption.REPLACE_EXISTING);
+            imageStore.put("023d2e8c4029412e1532319af131e6d0.jpeg", stagingFile);
+            return imageStore;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
     }
 
     @Test
@@ -74,11 +149,21 @@ class EVStationServiceTest {
     @Test
     void getImage() {
         try {
-            ByteArrayResource byteArrayResource = evStationService.getImage("023d2e8c4029412e1532319af131e6d0");
-            assertTrue(byteArrayResource.exists());
+            Resource image = evStationService.getImage("023d2e8c4029412e1532319af131e6d0");
+            assertTrue(image.exists());
+            assertTrue(image.isFile());
         } catch (IOException e) {
             throw new RuntimeException(e);
         }
+        assertThrows(RuntimeException.class, () -> evStationService.getImage("..%2F..%2Fpom"));
+    }
+
+    @Test
+    void getImageFallsBackToOriginalWhileVariantIsMissing() throws IOException {
+        Resource image = evStationService.getImage("023d2e8c4029412e1532319af131e6d0", "thumb");
+        assertEquals(image.getFilename(), "023d2e8c4029412e1532319af131e6d0.jpeg");
+        verify(evStationImageVariants).schedule("023d2e8c4029412e1532319af131e6d0");
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getImage("023d2e8c4029412e1532319af131e6d0", "huge"));
     }
 
     @Test
@@ -160,4 +245,307 @@ class EVStationServiceTest {
         assertEquals(responseList.get(0).getId(), 102);
         assertEquals(responseList.get(1).getId(), 101);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getEVStationPage() {
+        Pageable firstWindow = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "price", "id"));
+        List<EVStation> firstPage = new ArrayList<>();
+        firstPage.add(evStation1);
+        firstPage.add(evStation2);
+        when(evStationRepository.findAllByPriceBetween(-Float.MAX_VALUE, Float.MAX_VALUE, firstWindow)).thenReturn(firstPage);
+        EVStationPage<EVStation> page = evStationService.getEVStationPage("asc", "station_pricing", null, 1);
+        assertEquals(page.getStations().size(), 1);
+        assertEquals(page.getStations().get(0).getId(), 101);
+        assertTrue(page.getNextCursor().isPresent());
+
+        EVStationCursor cursor = EVStationCursor.decode(page.getNextCursor().get());
+        assertEquals(cursor.getProperty(), "price");
+        assertTrue(cursor.isAscending());
+        assertEquals(cursor.getLastId(), 101);
+        List<EVStation> secondPage = new ArrayList<>();
+        secondPage.add(evStation2);
+        when(evStationRepository.findPageAfterPriceAscending(4.65F, 101L, -Float.MAX_VALUE, Float.MAX_VALUE, PageRequest.ofSize(2))).thenReturn(secondPage);
+        page = evStationService.getEVStationPage(null, null, page.getNextCursor().get(), 1);
+        assertEquals(page.getStations().get(0).getId(), 102);
+        assertTrue(page.getNextCursor().isEmpty());
+    }
+
+    @Test
+    void getEVStationPageWithinPriceRange() {
+        Pageable firstWindow = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+        List<EVStation> firstPage = new ArrayList<>();
+        firstPage.add(evStation2);
+        firstPage.add(evStation1);
+        when(evStationRepository.findAllByPriceBetween(4F, 5F, firstWindow)).thenReturn(firstPage);
+        EVStationPage<EVStation> page = evStationService.getEVStationPage("desc", null, null, 1, 4F, 5F);
+        assertEquals(page.getStations().get(0).getId(), 102);
+
+        EVStationCursor cursor = EVStationCursor.decode(page.getNextCursor().get());
+        assertEquals(cursor.getMinPrice(), 4F);
+        assertEquals(cursor.getMaxPrice(), 5F);
+        when(evStationRepository.findPageAfterIdDescending(102L, 4F, 5F, PageRequest.ofSize(2))).thenReturn(List.of(evStation1));
+        page = evStationService.getEVStationPage(null, null, page.getNextCursor().get(), 1, null, null);
+        assertEquals(page.getStations().get(0).getId(), 101);
+        assertTrue(page.getNextCursor().isEmpty());
+
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getEVStationPage(null, null, null, 10, 5F, 4F));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getEVStationPage(null, null, null, 10, Float.NaN, null));
+    }
+
+    @Test
+    void getEVStationPageWithFields() {
+        EVStationFields fields = EVStationFields.parse("name");
+        Pageable firstWindow = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "price", "id"));
+        List<Map<String, Object>> firstPage = new ArrayList<>();
+        firstPage.add(new LinkedHashMap<>(Map.of("id", 101L, "name", "EVStation 1", "price", 4.65F)));
+        firstPage.add(new LinkedHashMap<>(Map.of("id", 102L, "name", "EVStation 2", "price", 4.78F)));
+        when(evStationRepository.findFieldsByPriceBetween(List.of("id", "name", "price"), -Float.MAX_VALUE, Float.MAX_VALUE, firstWindow))
+                .thenReturn(firstPage);
+        EVStationPage<Map<String, Object>> page = evStationService.getEVStationPage("asc", "station_pricing", null, 1, null, null, fields);
+        assertEquals(page.getStations().size(), 1);
+        assertEquals(page.getStations().get(0).keySet(), Set.of("id", "name"));
+
+        EVStationCursor cursor = EVStationCursor.decode(page.getNextCursor().get());
+        assertEquals(cursor.getLastValue(), "4.65");
+        when(evStationRepository.findFieldsAfter(List.of("id", "name", "price"), 101L, 4.65F, -Float.MAX_VALUE, Float.MAX_VALUE, firstWindow))
+                .thenReturn(new ArrayList<>(firstPage.subList(1, 2)));
+        page = evStationService.getEVStationPage(null, null, page.getNextCursor().get(), 1, null, null, fields);
+        assertEquals(page.getStations().get(0).get("id"), 102L);
+        assertTrue(page.getNextCursor().isEmpty());
+        verify(evStationRepository, never()).findAllByPriceBetween(anyFloat(), anyFloat(), any());
+    }
+
+    @Test
+    void getSortedEVStationsWithFields() {
+        EVStationFields fields = EVStationFields.parse("price, name");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        rows.add(fields.project(evStation2));
+        when(evStationRepository.findFieldsByPriceBetween(List.of("id", "name", "price"), -Float.MAX_VALUE, Float.MAX_VALUE, Sort.by("price").descending()))
+                .thenReturn(rows);
+        assertEquals(evStationService.getSortedEVStations("desc", "station_pricing", fields), rows);
+        assertEquals(evStationService.getSortedEVStations("desc", "station_pricing", fields), rows);
+        verify(evStationRepository, times(1)).findFieldsByPriceBetween(anyList(), anyFloat(), anyFloat(), any(Sort.class));
+        assertThrows(IllegalArgumentException.class, () -> EVStationFields.parse("name,password"));
+    }
+
+    @Test
+    void getPriceSummary() {
+        EVStationPriceStatistics statistics = mock(EVStationPriceStatistics.class);
+        when(statistics.getCount()).thenReturn(3L);
+        when(statistics.getMinimum()).thenReturn(2F);
+        when(statistics.getMaximum()).thenReturn(6F);
+        when(statistics.getAverage()).thenReturn(4D);
+        when(evStationRepository.findPriceStatistics(-Float.MAX_VALUE, Float.MAX_VALUE)).thenReturn(statistics);
+        EVStationPriceBucket low = mock(EVStationPriceBucket.class);
+        when(low.getBucket()).thenReturn(0);
+        when(low.getStations()).thenReturn(1L);
+        EVStationPriceBucket high = mock(EVStationPriceBucket.class);
+        when(high.getBucket()).thenReturn(3);
+        when(high.getStations()).thenReturn(2L);
+        when(evStationRepository.findPriceHistogram(2F, 1D, 3, -Float.MAX_VALUE, Float.MAX_VALUE)).thenReturn(List.of(low, high));
+
+        EVStationPriceSummary summary = evStationService.getPriceSummary(4, null, null);
+        assertEquals(summary.getCount(), 3);
+        assertEquals(summary.getAverage(), 4D);
+        assertEquals(summary.getBuckets().size(), 4);
+        assertEquals(summary.getBuckets().get(0).getCount(), 1);
+        assertEquals(summary.getBuckets().get(1).getCount(), 0);
+        assertEquals(summary.getBuckets().get(3).getFrom(), 5F);
+        assertEquals(summary.getBuckets().get(3).getTo(), 6F);
+        assertEquals(summary.getBuckets().get(3).getCount(), 2);
+
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getPriceSummary(0, null, null));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getPriceSummary(10, 6F, 2F));
+    }
+
+    @Test
+    void getPriceSummaryOfEmptyRange() {
+        EVStationPriceStatistics statistics = mock(EVStationPriceStatistics.class);
+        when(statistics.getCount()).thenReturn(0L);
+        when(evStationRepository.findPriceStatistics(100F, 200F)).thenReturn(statistics);
+        EVStationPriceSummary summary = evStationService.getPriceSummary(10, 100F, 200F);
+        assertEquals(summary.getCount(), 0);
+        assertTrue(summary.getBuckets().isEmpty());
+        verify(evStationRepository, never()).findPriceHistogram(anyFloat(), anyDouble(), anyInt(), anyFloat(), anyFloat());
+    }
+
+    @Test
+    void getEVStationPageRejectsMalformedCursor() {
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getEVStationPage(null, null, "not-a-cursor", 10));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getEVStationPage(null, null, null, 0));
+    }
+
+    @Test
+    void exportEVStations() {
+        when(evStationRepository.streamAllByOrderById()).thenReturn(Stream.of(evStation1, evStation2));
+        List<EVStation> exported = new ArrayList<>();
+        evStationService.exportEVStations(exported::add);
+        assertEquals(exported.size(), 2);
+        verify(entityManager).detach(evStation1);
+        verify(entityManager).detach(evStation2);
+    }
+
+    @Test
+    void updateOrSavePublishesChange() {
+        when(evStationRepository.save(any(EVStation.class))).thenReturn(evStation1);
+        evStationService.updateOrSave(evStation1.getId(), evStation1.getName(), evStation1.getPrice(), evStation1.getAddress(), evStation1.getImage(), null, null);
+        verify(eventPublisher).publishEvent(argThat((EVStationChangedEvent event) ->
+                event.getType() == EVStationChangedEvent.Type.UPDATED && event.getId() == evStation1.getId()));
+    }
+
+    @Test
+    void updateEVStationIsOneConditionalUpdate() {
+        when(evStationSites.siteId("AISD / LIBRARY")).thenReturn(12L);
+        when(evStationRepository.updateIfVersion(101L, 3L, "AISD / LIBRARY", 5F, "Main St", null, null, null, 12L)).thenReturn(Optional.of(evStation1));
+        assertEquals(evStationService.updateEVStation(101L, "AISD / LIBRARY", 5F, "Main St", null, null, 3L), evStation1);
+        verify(evStationRepository, never()).findById(anyLong());
+        verify(evStationRepository, never()).save(any());
+        verify(eventPublisher).publishEvent(argThat((EVStationChangedEvent event) ->
+                event.getType() == EVStationChangedEvent.Type.UPDATED && event.getStation() == evStation1));
+    }
+
+    @Test
+    void patchEVStationRejectsStaleVersion() {
+        when(evStationRepository.updateIfVersion(101L, 2L, null, 6F, null, null, null, null, null)).thenReturn(Optional.empty());
+        when(evStationRepository.existsById(101L)).thenReturn(true);
+        assertThrows(OptimisticLockingFailureException.class, () -> evStationService.patchEVStation(101L, 2L, null, 6F, null, null, null, null));
+        when(evStationRepository.updateIfVersion(999L, null, null, 6F, null, null, null, null, null)).thenReturn(Optional.empty());
+        assertThrows(EmptyResultDataAccessException.class, () -> evStationService.patchEVStation(999L, null, null, 6F, null, null, null, null));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.patchEVStation(101L, null, null, null, null, null, 30.0, null));
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void patchEVStationQueuedInWriteBehindMode() {
+        when(evStationWriteBehind.isEnabled()).thenReturn(true);
+        when(evStationWriteBehind.update(eq(101L), eq(2L), any(), any())).thenAnswer(invocation -> {
+            EVStation pending = new EVStation();
+            pending.setId(101L);
+            pending.setName(evStation1.getName());
+            invocation.<Consumer<EVStation>>getArgument(3).accept(pending);
+            when(evStationWriteBehind.pending(101L)).thenReturn(Optional.of(pending));
+            return pending;
+        });
+        EVStation updated = evStationService.patchEVStation(101L, 2L, null, 6F, null, null, null, null);
+        assertEquals(6F, updated.getPrice());
+        assertEquals(evStation1.getName(), updated.getName());
+        assertEquals(Optional.of(updated), evStationService.getEVStation(101L));
+        verify(evStationRepository, never()).updateIfVersion(anyLong(), any(), any(), any(), any(), any(), any(), any(), any());
+        verify(evStationRepository, never()).findById(anyLong());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deleteEVStationRejectsStaleVersion() {
+        evStation1.setVersion(4);
+        when(evStationRepository.findById(evStation1.getId())).thenReturn(Optional.of(evStation1));
+        assertThrows(OptimisticLockingFailureException.class, () -> evStationService.deleteEVStation(evStation1.getId(), 3L));
+        verify(evStationRepository, never()).delete(any());
+    }
+
+    @Test
+    void getSortedEVStationsServedFromCache() {
+        Sort ascendingSortQuery = Sort.by("price").ascending();
+        List<EVStation> ascendingEVStations = new ArrayList<>();
+        ascendingEVStations.add(evStation1);
+        ascendingEVStations.add(evStation2);
+        when(evStationRepository.findAll(ascendingSortQuery)).thenReturn(ascendingEVStations);
+        evStationService.getSortedEVStations("asc", "station_pricing");
+        evStationService.getSortedEVStations("asc", "station_pricing");
+        verify(evStationRepository, times(1)).findAll(ascendingSortQuery);
+
+        evStationCache.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.UPDATED, evStation1.getId(), evStation1));
+        evStationService.getSortedEVStations("asc", "station_pricing");
+        verify(evStationRepository, times(2)).findAll(ascendingSortQuery);
+    }
+
+    @Test
+    void getNearbyEVStations() {
+        List<Long> ids = new ArrayList<>();
+        ids.add(evStation2.getId());
+        ids.add(evStation1.getId());
+        List<EVStation> unordered = new ArrayList<>();
+        unordered.add(evStation1);
+        unordered.add(evStation2);
+        when(evStationSpatialIndex.nearest(30.27, -97.74, 5000, 2)).thenReturn(ids);
+        when(evStationRepository.findAllById(ids)).thenReturn(unordered);
+        List<EVStation> nearby = evStationService.getNearbyEVStations(30.27, -97.74, 5000, 2);
+        assertEquals(nearby.get(0).getId(), 102);
+        assertEquals(nearby.get(1).getId(), 101);
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getNearbyEVStations(91, 0, 5000, 2));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.getNearbyEVStations(0, 0, 5000, 0));
+    }
+
+    @Test
+    void searchEVStations() {
+        List<Long> ids = new ArrayList<>();
+        ids.add(evStation2.getId());
+        ids.add(evStation1.getId());
+        List<EVStation> unordered = new ArrayList<>();
+        unordered.add(evStation1);
+        unordered.add(evStation2);
+        when(evStationSearchIndex.search("gables", 0, 2)).thenReturn(new EVStationSearchIndex.Hits(ids, 5));
+        when(evStationRepository.findAllById(ids)).thenReturn(unordered);
+        EVStationSearchResult result = evStationService.searchEVStations("gables", 0, 2);
+        assertEquals(result.getTotal(), 5);
+        assertEquals(result.getStations().get(0).getId(), 102);
+        assertThrows(IllegalArgumentException.class, () -> evStationService.searchEVStations(" ", 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> evStationService.searchEVStations("gables", 0, 101));
+    }
+
+    @Test
+    void addEVStationReusesStoredImage() throws IOException {
+        byte[] stored = imageStore.open("023d2e8c4029412e1532319af131e6d0.jpeg").get().getInputStream().readAllBytes();
+        when(evStationRepository.save(any(EVStation.class))).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        EVStation added = evStationService.addEVStation(
+                new MockMultipartFile("image", "station.jpeg", "image/jpeg", stored),
+                evStation1.getName(), evStation1.getPrice(), evStation1.getAddress(), null, null);
+        assertEquals(added.getImage(), "/api/stations/images/023d2e8c4029412e1532319af131e6d0");
+        verify(imageStore, never()).put(any(), any());
+        verify(stationMetrics).imageHashed(anyLong());
+        verify(stationMetrics, never()).imageWritten(anyLong());
+    }
+
+    @Test
+    void deleteEVStationReleasesImageOnlyWhenUnreferenced() throws IOException {
+        byte[] content = ("unique station image " + System.nanoTime()).getBytes();
+        String imageName = DigestUtils.md5DigestAsHex(content);
+        String key = imageName + ".jpeg";
+        when(evStationRepository.save(any(EVStation.class))).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        EVStation added = evStationService.addEVStation(
+                new MockMultipartFile("image", "station.jpeg", "image/jpeg", content),
+                evStation1.getName(), evStation1.getPrice(), evStation1.getAddress(), null, null);
+        assertTrue(imageStore.exists(key));
+        verify(stationMetrics).imageWritten(content.length);
+        added.setId(103);
+        when(evStationRepository.findById(103L)).thenReturn(Optional.of(added));
+        when(evStationRepository.countByImage(added.getImage())).thenReturn(1L);
+        evStationService.deleteEVStation(103L, null);
+        assertTrue(imageStore.exists(key));
+        when(evStationRepository.countByImage(added.getImage())).thenReturn(0L);
+        evStationService.deleteEVStation(103L, null);
+        assertFalse(imageStore.exists(key));
+        verify(evStationRepository, times(2)).delete(added);
+    }
+
+    @Test
+    void deleteEVStationKeepsImagesOfPendingEdits() throws IOException {
+        byte[] stored = ("stored station image " + System.nanoTime()).getBytes();
+        byte[] edited = ("edited station image " + System.nanoTime()).getBytes();
+        when(evStationRepository.save(any(EVStation.class))).thenAnswer(invocationOnMock -> invocationOnMock.getArgument(0));
+        EVStation added = evStationService.addEVStation(
+                new MockMultipartFile("image", "station.jpeg", "image/jpeg", stored),
+                evStation1.getName(), evStation1.getPrice(), evStation1.getAddress(), null, null);
+        EVStation pending = evStationService.addEVStation(
+                new MockMultipartFile("image", "station.jpeg", "image/jpeg", edited),
+                evStation1.getName(), evStation1.getPrice(), evStation1.getAddress(), null, null);
+        added.setId(103);
+        pending.setId(103);
+        when(evStationRepository.findById(103L)).thenReturn(Optional.of(added));
+        when(evStationWriteBehind.pending(103L)).thenReturn(Optional.of(pending));
+        when(evStationWriteBehind.isImagePending(added.getImage(), 103L)).thenReturn(true);
+        evStationService.deleteEVStation(103L, null);
+        assertTrue(imageStore.exists(DigestUtils.md5DigestAsHex(stored) + ".jpeg"));
+        assertFalse(imageStore.exists(DigestUtils.md5DigestAsHex(edited) + ".jpeg"));
+    }
+}
@@ -0,0 +1,109 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class EVStationSpatialIndexTest {
+    private EVStationSpatialIndex index;
+    private List<EVStation> stations;
+
+    @BeforeEach
+    void setUp() {
+        index = new EVStationSpatialIndex(mock(EVStationRepository.class), 0.01);
+        stations = new ArrayList<>();
+        Random random = new Random(42);
+        for (int i = 1; i <= 2000; i++) {
+            EVStation station = new EVStation();
+            station.setId(i);
+            station.setLatitude(30.0 + random.nextDouble() * 0.6);
+            station.setLongitude(-98.0 + random.nextDouble() * 0.6);
+            stations.add(station);
+            index.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.CREATED, i, station));
+        }
+    }
+
+    @Test
+    void nearestMatchesBruteForce() {
+        double latitude = 30.27;
+        double longitude = -97.74;
+        List<Long> expected = stations.stream()
+                .filter(s -> distance(s, latitude, longitude) <= 5000)
+                .sorted(Comparator.comparingDouble(s -> distance(s, latitude, longitude)))
+                .limit(15)
+                .map(EVStation::getId)
+                .collect(Collectors.toList());
+        assertEquals(index.nearest(latitude, longitude, 5000, 15), expected);
+    }
+
+    @Test
+    void radiusLimitsResults() {
+        List<Long> ids = index.nearest(30.27, -97.74, 300, 100);
+        ids.forEach(id -> assertTrue(distance(stations.get((int) (id - 1)), 30.27, -97.74) <= 300));
+    }
+
+    @Test
+    void deleteAndMoveAreReflected() {
+        long nearestId = index.nearest(30.27, -97.74, 50000, 1).get(0);
+        index.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.DELETED, nearestId, null));
+        assertTrue(!index.nearest(30.27, -97.74, 50000, 5).contains(nearestId));
+
+        EVStation moved = stations.get(0);
+        moved.setLatitude(30.27);
+        moved.setLongitude(-97.74);
+        index.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.UPDATED, moved.getId(), moved));
+        assertEquals(index.nearest(30.27, -97.74, 50000, 1).get(0), moved.getId());
+        assertEquals(index.size(), stations.size() - 1);
+    }
+
+    @Test
+    void nearestNearThePoleMatchesBruteForceAcrossLongitudes() {
+        EVStationSpatialIndex polar = new EVStationSpatialIndex(mock(EVStationRepository.class), 1);
+        List<EVStation> polarStations = new ArrayList<>();
+        Random random = new Random(7);
+        for (int i = 1; i <= 3000; i++) {
+            EVStation station = new EVStation();
+            station.setId(i);
+            station.setLatitude(88 + random.nextDouble() * 2);
+            station.setLongitude(-180 + random.nextDouble() * 360);
+            polarStations.add(station);
+            polar.onStationChanged(new EVStationChangedEvent(EVStationChangedEvent.Type.CREATED, i, station));
+        }
+        List<Long> expected = polarStations.stream()
+                .filter(s -> distance(s, 89, 10) <= EVStationService.MAX_NEARBY_RADIUS_METERS)
+                .sorted(Comparator.comparingDouble(s -> distance(s, 89, 10)))
+                .limit(50)
+                .map(EVStation::getId)
+                .collect(Collectors.toList());
+        assertEquals(polar.nearest(89, 10, EVStationService.MAX_NEARBY_RADIUS_METERS, 50), expected);
+    }
+
+    @Test
+    void nearestNearThePoleIsBounded() {
+        EVStationSpatialIndex empty = new EVStationSpatialIndex(mock(EVStationRepository.class), 0.01);
+        assertTimeout(Duration.ofSeconds(1), () -> {
+            for (double latitude : new double[]{89, 89.99, 90, -90}) {
+                assertTrue(empty.nearest(latitude, 0, EVStationService.MAX_NEARBY_RADIUS_METERS, EVStationService.MAX_NEARBY_RESULTS).isEmpty());
+            }
+        });
+        assertTimeout(Duration.ofSeconds(1), () -> index.nearest(89.99, 0, EVStationService.MAX_NEARBY_RADIUS_METERS, 10));
+    }
+
+    private static double distance(EVStation station, double latitude, double longitude) {
+        return EVStationSpatialIndex.distanceMeters(latitude, longitude, station.getLatitude(), station.getLongitude());
+    }
+}
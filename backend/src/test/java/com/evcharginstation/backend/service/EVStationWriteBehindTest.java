@@ -0,0 +1,145 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jdbc.EVStationBatchRepository;
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.service.event.EVStationChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EVStationWriteBehindTest {
+    @TempDir
+    Path directory;
+    private EVStationBatchRepository evStationBatchRepository;
+    private EVStationSites evStationSites;
+    private ApplicationEventPublisher eventPublisher;
+    private EVStation station;
+
+    @BeforeEach
+    void setUp() {
+        evStationBatchRepository = mock(EVStationBatchRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        evStationSites = mock(EVStationSites.class);
+        when(evStationSites.batch()).thenReturn(name -> name.contains("/") ? 11L : null);
+        when(evStationBatchRepository.updateAll(anyList(), any(), anyInt())).thenAnswer(invocation ->
+                new int[][]{new int[invocation.<List<?>>getArgument(0).size()]});
+        station = new EVStation();
+        station.setId(7);
+        station.setName("W1/W 1");
+        station.setPrice(4.17F);
+        station.setImage("/api/stations/images/023d2e8c4029412e1532319af131e6d0");
+        station.setVersion(3);
+    }
+
+    @Test
+    void editsAreCoalescedAndFlushedInOneBatch() throws IOException {
+        EVStationWriteBehind writeBehind = writeBehind();
+        when(evStationBatchRepository.updateAll(anyList(), any(), anyInt())).thenReturn(new int[][]{{1}});
+        writeBehind.update(7, 3L, id -> Optional.of(station), edit -> edit.setPrice(5F));
+        EVStation updated = writeBehind.update(7, 4L, id -> Optional.empty(), edit -> edit.setName("Renamed"));
+        assertEquals(5, updated.getVersion());
+        assertEquals(5F, updated.getPrice());
+        assertEquals(3, station.getVersion());
+        assertThrows(OptimisticLockingFailureException.class, () -> writeBehind.update(7, 4L, id -> Optional.empty(), edit -> edit.setPrice(6F)));
+        assertThrows(EmptyResultDataAccessException.class, () -> writeBehind.update(8, null, id -> Optional.empty(), edit -> edit.setPrice(6F)));
+
+        writeBehind.flush();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<EVStation>> batch = ArgumentCaptor.forClass(List.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Function<EVStation, Long>> siteIds = ArgumentCaptor.forClass(Function.class);
+        verify(evStationBatchRepository).updateAll(batch.capture(), siteIds.capture(), anyInt());
+        assertEquals(1, batch.getValue().size());
+        assertEquals("Renamed", batch.getValue().get(0).getName());
+        assertNull(siteIds.getValue().apply(batch.getValue().get(0)));
+        assertEquals(11L, siteIds.getValue().apply(station));
+        ArgumentCaptor<EVStationChangedEvent> event = ArgumentCaptor.forClass(EVStationChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(5, event.getValue().getStation().getVersion());
+        assertFalse(writeBehind.pending(7).isPresent());
+        writeBehind.shutdown();
+        assertEquals(1, segments().size());
+        assertEquals(0, Files.size(segments().get(0)));
+    }
+
+    @Test
+    void pendingImagesAreReportedForOtherStations() throws IOException {
+        EVStationWriteBehind writeBehind = writeBehind();
+        writeBehind.update(7, null, id -> Optional.of(station), edit -> edit.setImage("/api/stations/images/edited"));
+        assertTrue(writeBehind.isImagePending("/api/stations/images/edited", 8));
+        assertFalse(writeBehind.isImagePending("/api/stations/images/edited", 7));
+        assertFalse(writeBehind.isImagePending(station.getImage(), 8));
+        writeBehind.shutdown();
+    }
+
+    @Test
+    void acknowledgedEditsAreReplayedAfterACrash() throws IOException {
+        EVStationWriteBehind crashed = writeBehind();
+        crashed.update(7, null, id -> Optional.of(station), edit -> edit.setPrice(5F));
+        crashed.update(7, null, id -> Optional.of(station), edit -> edit.setAddress("4100 Jackson Ave"));
+        Files.write(segments().get(0), "{\"id\":7,\"pri".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        EVStationWriteBehind restarted = writeBehind();
+        EVStation replayed = restarted.pending(7).orElseThrow();
+        assertEquals(5, replayed.getVersion());
+        assertEquals(5F, replayed.getPrice());
+        assertEquals("4100 Jackson Ave", replayed.getAddress());
+        restarted.flush();
+        verify(evStationBatchRepository).updateAll(anyList(), any(), anyInt());
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void failedFlushKeepsTheLog() throws IOException {
+        EVStationWriteBehind writeBehind = writeBehind();
+        when(evStationBatchRepository.updateAll(anyList(), any(), anyInt())).thenThrow(new IllegalStateException("database down"));
+        writeBehind.update(7, null, id -> Optional.of(station), edit -> edit.setPrice(5F));
+        writeBehind.flush();
+        assertEquals(5F, writeBehind.pending(7).orElseThrow().getPrice());
+        assertEquals(2, segments().size());
+        EVStationWriteBehind restarted = writeBehind();
+        assertEquals(5F, restarted.pending(7).orElseThrow().getPrice());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private EVStationWriteBehind writeBehind() throws IOException {
+        return new EVStationWriteBehind(evStationBatchRepository, evStationSites, mock(PlatformTransactionManager.class), eventPublisher,
+                EVStationWriteBehind.WRITE_BEHIND_MODE, directory.toString(), Duration.ofHours(1), 100);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
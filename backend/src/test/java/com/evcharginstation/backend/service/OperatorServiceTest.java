@@ -0,0 +1,90 @@
+package com.evcharginstation.backend.service;
+
+import com.evcharginstation.backend.persistency.jpa.entity.EVStation;
+import com.evcharginstation.backend.persistency.jpa.repository.EVStationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class OperatorServiceTest {
+    private static final String IMAGE = "/api/stations/images/023d2e8c4029412e1532319af131e6d0";
+
+    @Autowired
+    private OperatorService operatorService;
+    @Autowired
+    private EVStationService evStationService;
+    @Autowired
+    private EVStationRepository evStationRepository;
+    private final List<Long> createdIds = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        evStationRepository.deleteAllById(createdIds);
+    }
+
+    @Test
+    void migrationSplitsSeededNames() {
+        OperatorSummary aisd = operator("AISD");
+        List<EVStation> stations = evStationRepository.findAllById(List.of(2L, 18L, 21L));
+        assertEquals(aisd.getStations(), 3);
+        assertEquals(aisd.getSites(), 3);
+        assertEquals(aisd.getMinimumPrice(), stations.stream().map(EVStation::getPrice).min(Float::compare).orElseThrow());
+        assertEquals(aisd.getMaximumPrice(), stations.stream().map(EVStation::getPrice).max(Float::compare).orElseThrow());
+        assertEquals(operatorService.getOperator(aisd.getId()).orElseThrow().getStations(), 3);
+        assertEquals(operator("W1").getStations(), 1);
+        assertTrue(operatorService.getOperator(-1).isEmpty());
+    }
+
+    @Test
+    void getOperatorStationsPagesBySite() {
+        long id = operator("AISD").getId();
+        OperatorStations first = operatorService.getOperatorStations(id, null, 2).orElseThrow();
+        assertEquals(first.getName(), "AISD");
+        assertEquals(first.getSites().stream().map(OperatorStations.SiteStations::getName).collect(Collectors.toList()),
+                List.of("CENTRAL OFFICE1", "AKINS1"));
+        assertEquals(first.getNext(), 18L);
+        OperatorStations second = operatorService.getOperatorStations(id, first.getNext(), 2).orElseThrow();
+        assertEquals(second.getSites().get(0).getStations().get(0).getId(), 21L);
+        assertNull(second.getNext());
+        assertTrue(operatorService.getOperatorStations(id, 21L, 2).orElseThrow().getSites().isEmpty());
+        assertTrue(operatorService.getOperatorStations(-1, null, 2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> operatorService.getOperatorStations(id, null, OperatorService.MAX_STATIONS_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void writesKeepSitesInSyncWithNames() {
+        EVStation created = evStationService.updateOrSave(null, "NEW OPERATOR / LOT A", 4.5F, "1 Main St", IMAGE, null, null);
+        createdIds.add(created.getId());
+        OperatorSummary operator = operator("NEW OPERATOR");
+        assertEquals(operator.getStations(), 1);
+        assertEquals(operator.getMinimumPrice(), 4.5F);
+
+        evStationService.patchEVStation(created.getId(), null, "NEW OPERATOR / LOT B", null, null, null, null, null);
+        OperatorStations stations = operatorService.getOperatorStations(operator.getId(), null, 10).orElseThrow();
+        assertEquals(stations.getSites().get(0).getName(), "LOT B");
+        assertEquals(operator("NEW OPERATOR").getSites(), 1);
+
+        evStationService.patchEVStation(created.getId(), null, "Unaffiliated", null, null, null, null, null);
+        assertEquals(operator("NEW OPERATOR").getStations(), 0);
+        assertEquals(operator("NEW OPERATOR").getSites(), 0);
+        assertNull(operator("NEW OPERATOR").getMinimumPrice());
+    }
+
+    private OperatorSummary operator(String name) {
+        return operatorService.getOperators().stream()
+                .filter(operator -> operator.getName().equals(name))
+                .findFirst()
+                .orElseThrow();
+    }
+}
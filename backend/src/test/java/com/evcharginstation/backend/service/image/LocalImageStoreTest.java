@@ -0,0 +1,64 @@
+package com.evcharginstation.backend.service.image;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LocalImageStoreTest {
+    private static final String KEY = "023d2e8c4029412e1532319af131e6d0.jpeg";
+
+    @TempDir
+    Path directory;
+    private LocalImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        imageStore = new LocalImageStore(directory);
+    }
+
+    @Test
+    void putShardsByNamePrefix() throws IOException {
+        Path stagingFile = imageStore.createStagingFile();
+        Files.writeString(stagingFile, "image");
+        imageStore.put(KEY, stagingFile);
+        assertTrue(Files.exists(directory.resolve("02").resolve("3d").resolve(KEY)));
+        assertFalse(Files.exists(stagingFile));
+        assertTrue(imageStore.exists(KEY));
+        Resource resource = imageStore.open(KEY).get();
+        assertTrue(resource.isFile());
+        try (InputStream content = resource.getInputStream()) {
+            assertEquals(new String(content.readAllBytes(), StandardCharsets.UTF_8), "image");
+        }
+    }
+
+    @Test
+    void copyAndDelete() throws IOException {
+        Path stagingFile = imageStore.createStagingFile();
+        Files.writeString(stagingFile, "image");
+        imageStore.put(KEY, stagingFile);
+        imageStore.copy(KEY, "023d2e8c4029412e1532319af131e6d0_thumb.jpeg");
+        assertTrue(Files.exists(directory.resolve("02/3d/023d2e8c4029412e1532319af131e6d0_thumb.jpeg")));
+        imageStore.delete(KEY);
+        assertFalse(imageStore.exists(KEY));
+        assertTrue(imageStore.open(KEY).isEmpty());
+        assertTrue(imageStore.exists("023d2e8c4029412e1532319af131e6d0_thumb.jpeg"));
+    }
+
+    @Test
+    void rejectsKeysOutsideTheStore() {
+        assertThrows(IllegalArgumentException.class, () -> imageStore.exists("../../pom.xml"));
+        assertThrows(IllegalArgumentException.class, () -> imageStore.exists("0000/../pom.xml"));
+    }
+}
@@ -0,0 +1,182 @@
+package com.evcharginstation.backend.service.image;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.util.DigestUtils;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class S3ImageStoreTest {
+    private static final String KEY = "023d2e8c4029412e1532319af131e6d0.jpeg";
+    private static final byte[] CONTENT = "station image".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    Path stagingDirectory;
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private HttpServer server;
+    private S3ImageStore imageStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", this::handle);
+        server.start();
+        URI endpoint = URI.create("http://localhost:" + server.getAddress().getPort());
+        StaticCredentialsProvider credentials = StaticCredentialsProvider.create(AwsBasicCredentials.create("access", "secret"));
+        S3Configuration pathStyle = S3Configuration.builder().pathStyleAccessEnabled(true).build();
+        S3Client client = S3Client.builder().httpClientBuilder(UrlConnectionHttpClient.builder()).endpointOverride(endpoint)
+                .region(Region.US_EAST_1).credentialsProvider(credentials).serviceConfiguration(pathStyle).build();
+        S3Presigner presigner = S3Presigner.builder().endpointOverride(endpoint)
+                .region(Region.US_EAST_1).credentialsProvider(credentials).serviceConfiguration(pathStyle).build();
+        imageStore = new S3ImageStore(client, presigner, "stations", "images/", Duration.ofMinutes(5), stagingDirectory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        imageStore.close();
+        server.stop(0);
+    }
+
+    @Test
+    void putAndOpenStreamsObject() throws IOException {
+        Path stagingFile = imageStore.createStagingFile();
+        Files.write(stagingFile, CONTENT);
+        imageStore.put(KEY, stagingFile);
+        assertFalse(Files.exists(stagingFile));
+        assertArrayEquals(objects.get("/stations/images/" + KEY), CONTENT);
+        assertTrue(imageStore.exists(KEY));
+        Resource resource = imageStore.open(KEY).get();
+        assertEquals(resource.contentLength(), CONTENT.length);
+        assertFalse(resource.isFile());
+        try (InputStream content = resource.getInputStream()) {
+            assertArrayEquals(content.readAllBytes(), CONTENT);
+        }
+    }
+
+    @Test
+    void copyAndDelete() throws IOException {
+        objects.put("/stations/images/" + KEY, CONTENT);
+        imageStore.copy(KEY, "023d2e8c4029412e1532319af131e6d0_thumb.jpeg");
+        assertArrayEquals(objects.get("/stations/images/023d2e8c4029412e1532319af131e6d0_thumb.jpeg"), CONTENT);
+        imageStore.delete(KEY);
+        assertFalse(imageStore.exists(KEY));
+        assertTrue(imageStore.open(KEY).isEmpty());
+    }
+
+    @Test
+    void redirectPresignsObjectUrl() {
+        assertTrue(imageStore.redirects());
+        URI location = imageStore.redirect(KEY).get();
+        assertEquals(location.getPath(), "/stations/images/" + KEY);
+        assertTrue(location.getQuery().contains("X-Amz-Expires=300"));
+        assertTrue(location.getQuery().contains("X-Amz-Signature="));
+    }
+
+    // Just enough of the S3 REST API for the calls the store makes, with path-style addressing.
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        byte[] body = exchange.getRequestBody().readAllBytes();
+        byte[] object = objects.get(path);
+        switch (exchange.getRequestMethod()) {
+            case "PUT":
+                String copySource = exchange.getRequestHeaders().getFirst("x-amz-copy-source");
+                if (copySource != null) {
+                    String source = "/" + URLDecoder.decode(copySource, StandardCharsets.UTF_8).replaceFirst("^/", "");
+                    objects.put(path, objects.get(source));
+                    respond(exchange, 200, ("<CopyObjectResult><ETag>\"etag\"</ETag>" +
+                            "<LastModified>2024-01-01T00:00:00.000Z</LastModified></CopyObjectResult>").getBytes(StandardCharsets.UTF_8));
+                } else {
+                    byte[] content = decodeChunks(exchange, body);
+                    objects.put(path, content);
+                    exchange.getResponseHeaders().set("ETag", "\"" + DigestUtils.md5DigestAsHex(content) + "\"");
+                    respond(exchange, 200, new byte[0]);
+                }
+                break;
+            case "HEAD":
+                if (object == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else {
+                    exchange.getResponseHeaders().set("Content-Length", Integer.toString(object.length));
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                break;
+            case "GET":
+                if (object == null) {
+                    respond(exchange, 404, "<Error><Code>NoSuchKey</Code><Message>missing</Message></Error>".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    respond(exchange, 200, object);
+                }
+                break;
+            case "DELETE":
+                objects.remove(path);
+                exchange.sendResponseHeaders(204, -1);
+                break;
+            default:
+                exchange.sendResponseHeaders(405, -1);
+        }
+        exchange.close();
+    }
+
+    private static void respond(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.sendResponseHeaders(status, body.length == 0 ? -1 : body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    // Signed uploads over plain HTTP arrive in aws-chunked encoding: "<hex size>;chunk-signature=...\r\n<data>\r\n".
+    private static byte[] decodeChunks(HttpExchange exchange, byte[] body) {
+        String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+        if (contentSha256 == null || !contentSha256.startsWith("STREAMING-")) {
+            return body;
+        }
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        int position = 0;
+        while (position < body.length) {
+            int lineEnd = indexOfLineEnd(body, position);
+            String header = new String(body, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.split(";")[0], 16);
+            if (size == 0) {
+                break;
+            }
+            decoded.write(body, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+        return decoded.toByteArray();
+    }
+
+    private static int indexOfLineEnd(byte[] body, int from) {
+        for (int i = from; i < body.length - 1; i++) {
+            if (body[i] == '\r' && body[i + 1] == '\n') {
+                return i;
+            }
+        }
+        return body.length;
+    }
+}